@@ -0,0 +1,21 @@
+package com.islam.mobilesecurityhw1;
+
+import android.os.Trace;
+
+import com.islam.mobilesecurityhw1.core.CheckMetrics;
+
+/**
+ * Emits {@link CheckMetrics} sections as android.os.Trace sections, visible in Perfetto / systrace.
+ */
+public class AndroidTracer implements CheckMetrics.Tracer {
+
+    @Override
+    public void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+}
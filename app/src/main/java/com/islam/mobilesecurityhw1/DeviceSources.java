@@ -0,0 +1,138 @@
+package com.islam.mobilesecurityhw1;
+
+import android.content.Context;
+import android.hardware.SensorManager;
+import android.location.Location;
+
+import com.islam.mobilesecurityhw1.core.LocationPolicy;
+import com.islam.mobilesecurityhw1.core.LoginPolicy;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The one set of device-state sources in the process (battery / WiFi / brightness callbacks,
+ * orientation sensors, location), owned by {@link MobileSecurityApp} and shared by
+ * {@link MainActivity} and {@link ReadinessService}, so nothing is registered twice.
+ *
+ * Users {@link #acquire()} while they need live values and {@link #release()} when done; the
+ * sources start with the first user and stop with the last. Each user sets its own
+ * orientation demand on the shared tracker. Components are created on first use, so
+ * nothing touches Play Services or the sensors until someone asks. Call from the main thread.
+ */
+public final class DeviceSources {
+
+    /** Sees every change from any source. */
+    public interface Listener {
+        /** Some source changed. Called on the main thread, or on the sensor thread for orientation. */
+        void onSourcesChanged();
+
+        /** A location acquisition failed. Called on the main thread. */
+        default void onLocationFailed(Exception e) {
+        }
+    }
+
+    private static final long LOCATION_MAX_AGE_MS = 2 * 60_000; // older cached fixes are ignored
+    private static final float LOCATION_MAX_ACCURACY_M = 500f;
+    private static final long LOCATION_TIMEOUT_MS = 10_000;
+
+    private final Context context;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private DeviceStateMonitor deviceStateMonitor;
+    private OrientationTracker orientationTracker;
+    private LocationEngine locationEngine;
+    private int users = 0;
+
+    DeviceSources(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /** The process-wide instance. */
+    public static DeviceSources get(Context context) {
+        return ((MobileSecurityApp) context.getApplicationContext()).getDeviceSources();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts the device-state callbacks and the orientation tracker if this is the first user.
+     * The tracker registers its sensors only once some user sets a demand.
+     */
+    public void acquire() {
+        if (users++ > 0) return;
+        getDeviceStateMonitor().start();
+        getOrientationTracker().start();
+    }
+
+    /**
+     * Stops everything, including a running location acquisition, if this was the last user.
+     * Cached values (state, orientation, accepted fix) are kept.
+     */
+    public void release() {
+        if (users == 0 || --users > 0) return;
+        if (locationEngine != null) locationEngine.stop();
+        if (orientationTracker != null) orientationTracker.stop();
+        if (deviceStateMonitor != null) deviceStateMonitor.stop();
+    }
+
+    public DeviceStateMonitor getDeviceStateMonitor() {
+        if (deviceStateMonitor == null) {
+            deviceStateMonitor = new DeviceStateMonitor(context);
+            deviceStateMonitor.setOnChangeListener(this::notifyChanged);
+        }
+        return deviceStateMonitor;
+    }
+
+    public OrientationTracker getOrientationTracker() {
+        if (orientationTracker == null) {
+            LoginPolicy policy = LoginPolicyLoader.getPolicy(context);
+            orientationTracker = new OrientationTracker((SensorManager) context.getSystemService(Context.SENSOR_SERVICE),
+                    policy.getFlatToleranceDeg(), policy.getNorthToleranceDeg());
+            orientationTracker.setOnChangeListener(this::notifyChanged);
+        }
+        return orientationTracker;
+    }
+
+    /** The tracker if it exists, without creating it. */
+    OrientationTracker peekOrientationTracker() {
+        return orientationTracker;
+    }
+
+    public LocationEngine getLocationEngine() {
+        if (locationEngine == null) {
+            locationEngine = new LocationEngine(context, LocationClients.get().fused(context),
+                    new LocationPolicy(LOCATION_MAX_AGE_MS, LOCATION_MAX_ACCURACY_M, LOCATION_TIMEOUT_MS),
+                    new LocationEngine.Listener() {
+                        @Override
+                        public void onFixAccepted(Location location) {
+                            notifyChanged();
+                        }
+
+                        @Override
+                        public void onLocationFailed(Exception e) {
+                            for (Listener listener : listeners) {
+                                listener.onLocationFailed(e);
+                            }
+                        }
+                    });
+        }
+        return locationEngine;
+    }
+
+    /** The engine if it exists, without creating it. */
+    LocationEngine peekLocationEngine() {
+        return locationEngine;
+    }
+
+    private void notifyChanged() {
+        for (Listener listener : listeners) {
+            listener.onSourcesChanged();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.islam.mobilesecurityhw1;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.database.ContentObserver;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.BatteryManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+
+import androidx.annotation.NonNull;
+
+import com.islam.mobilesecurityhw1.core.DeviceState;
+
+/**
+ * Keeps a {@link DeviceState} current from push notifications instead of polling:
+ * the battery broadcast, a default-network callback and a brightness ContentObserver.
+ * Reading the state is a single volatile read with no IPC.
+ *
+ * Call {@link #start()} in onResume and {@link #stop()} in onPause. All callbacks arrive on the main thread.
+ */
+public class DeviceStateMonitor {
+
+    private final Context context;
+    private final ConnectivityManager connectivityManager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private volatile DeviceState state = DeviceState.INITIAL;
+    private boolean started = false;
+    private Runnable onChange;
+
+    public DeviceStateMonitor(Context context) {
+        this.context = context.getApplicationContext();
+        this.connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    /**
+     * Latest snapshot. Safe to call from any thread.
+     */
+    public DeviceState getState() {
+        return state;
+    }
+
+    /**
+     * Runs {@code listener} on the main thread after every change. Pass null to remove it.
+     */
+    public void setOnChangeListener(Runnable listener) {
+        this.onChange = listener;
+    }
+
+    public void start() {
+        if (started) return;
+        started = true;
+
+        // Sticky broadcast: the current battery state is delivered right away
+        Intent battery = context.registerReceiver(batteryReceiver, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery != null) {
+            onBatteryChanged(battery);
+        }
+
+        if (connectivityManager != null) {
+            NetworkCapabilities caps = connectivityManager.getNetworkCapabilities(connectivityManager.getActiveNetwork());
+            onWifiChanged(caps != null && caps.hasTransport(NetworkCapabilities.TRANSPORT_WIFI));
+            connectivityManager.registerDefaultNetworkCallback(networkCallback, mainHandler);
+        }
+
+        context.getContentResolver().registerContentObserver(
+                Settings.System.getUriFor(Settings.System.SCREEN_BRIGHTNESS), false, brightnessObserver);
+        onBrightnessChanged();
+    }
+
+    public void stop() {
+        if (!started) return;
+        started = false;
+
+        context.unregisterReceiver(batteryReceiver);
+        if (connectivityManager != null) {
+            connectivityManager.unregisterNetworkCallback(networkCallback);
+        }
+        context.getContentResolver().unregisterContentObserver(brightnessObserver);
+    }
+
+    // ===== Sources =====
+
+    private final BroadcastReceiver batteryReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            onBatteryChanged(intent);
+        }
+    };
+
+    private final ConnectivityManager.NetworkCallback networkCallback = new ConnectivityManager.NetworkCallback() {
+        @Override
+        public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities caps) {
+            onWifiChanged(caps.hasTransport(NetworkCapabilities.TRANSPORT_WIFI));
+        }
+
+        @Override
+        public void onLost(@NonNull Network network) {
+            onWifiChanged(false);
+        }
+    };
+
+    private final ContentObserver brightnessObserver = new ContentObserver(mainHandler) {
+        @Override
+        public void onChange(boolean selfChange) {
+            onBrightnessChanged();
+        }
+    };
+
+    private void onBatteryChanged(Intent intent) {
+        int level = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        int percent = (level >= 0 && scale > 0) ? level * 100 / scale : DeviceState.UNKNOWN;
+
+        int status = intent.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+        boolean charging = status == BatteryManager.BATTERY_STATUS_CHARGING
+                || status == BatteryManager.BATTERY_STATUS_FULL;
+
+        setState(state.withBattery(percent, charging));
+        TraceRecorder.onBattery(percent, charging);
+    }
+
+    private void onWifiChanged(boolean connected) {
+        setState(state.withWifiConnected(connected));
+        TraceRecorder.onWifi(connected);
+    }
+
+    private void onBrightnessChanged() {
+        int brightness = Settings.System.getInt(context.getContentResolver(),
+                Settings.System.SCREEN_BRIGHTNESS, DeviceState.UNKNOWN);
+        setState(state.withBrightness(brightness));
+        TraceRecorder.onBrightness(brightness);
+    }
+
+    private void setState(DeviceState next) {
+        if (next == state) return;
+        state = next;
+        if (onChange != null) onChange.run();
+    }
+}
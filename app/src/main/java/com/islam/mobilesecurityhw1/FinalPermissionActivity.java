@@ -3,7 +3,9 @@ package com.islam.mobilesecurityhw1;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.Settings;
@@ -27,6 +29,18 @@ public class FinalPermissionActivity extends AppCompatActivity {
         initViews();
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // The user may have granted the permission in Settings while we were in the background
+        boolean granted = checkSelfPermission(Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
+        LocationAccess.get(this).onPermissionChecked(granted);
+        if (granted) {
+            startActivity(new Intent(this, MainActivity.class));
+            finish();
+        }
+    }
+
     private void findViews() {
         finalPermission_LBL_instructions = findViewById(R.id.finalPermission_LBL_instructions);
         finalPermission_BTN_settings = findViewById(R.id.finalPermission_BTN_settings);
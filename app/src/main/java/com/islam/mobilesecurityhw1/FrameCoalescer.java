@@ -0,0 +1,52 @@
+package com.islam.mobilesecurityhw1;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collapses any number of {@link #invalidate()} calls into at most one callback per frame, run on
+ * the main thread just before the frame is drawn. invalidate() may be called from any thread.
+ */
+public class FrameCoalescer {
+
+    private final Runnable onFrame;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> {
+        // Cleared first, so a change made during onFrame gets the next frame
+        scheduled.set(false);
+        run();
+    };
+    private final Runnable postFrameCallback = () -> Choreographer.getInstance().postFrameCallback(frameCallback);
+
+    private boolean active = false;
+
+    public FrameCoalescer(Runnable onFrame) {
+        this.onFrame = onFrame;
+    }
+
+    public void invalidate() {
+        if (scheduled.compareAndSet(false, true)) {
+            mainHandler.post(postFrameCallback);
+        }
+    }
+
+    /** Main thread. Callbacks only run while started; starting schedules one. */
+    public void start() {
+        active = true;
+        invalidate();
+    }
+
+    /** Main thread. */
+    public void stop() {
+        active = false;
+    }
+
+    private void run() {
+        if (active) onFrame.run();
+    }
+}
@@ -0,0 +1,35 @@
+package com.islam.mobilesecurityhw1;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.location.LocationManager;
+
+import com.islam.mobilesecurityhw1.core.LocationAccessStateMachine;
+
+/**
+ * Process-wide {@link LocationAccessStateMachine}, so the cached state outlives a single activity.
+ * Location-provider changes invalidate the cached settings result.
+ */
+public final class LocationAccess {
+
+    private static LocationAccessStateMachine instance;
+
+    private LocationAccess() {
+    }
+
+    public static synchronized LocationAccessStateMachine get(Context context) {
+        if (instance == null) {
+            LocationAccessStateMachine machine = new LocationAccessStateMachine();
+            context.getApplicationContext().registerReceiver(new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    machine.invalidateSettings();
+                }
+            }, new IntentFilter(LocationManager.PROVIDERS_CHANGED_ACTION));
+            instance = machine;
+        }
+        return instance;
+    }
+}
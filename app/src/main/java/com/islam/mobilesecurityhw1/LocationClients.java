@@ -0,0 +1,46 @@
+package com.islam.mobilesecurityhw1;
+
+import android.content.Context;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.SettingsClient;
+
+/**
+ * Where the app gets its Play Services location clients. Local tests install fakes, since
+ * Play Services isn't available off-device.
+ */
+public final class LocationClients {
+
+    public interface Factory {
+        FusedLocationProviderClient fused(Context context);
+
+        SettingsClient settings(Context context);
+    }
+
+    public static final Factory PLAY_SERVICES = new Factory() {
+        @Override
+        public FusedLocationProviderClient fused(Context context) {
+            return LocationServices.getFusedLocationProviderClient(context);
+        }
+
+        @Override
+        public SettingsClient settings(Context context) {
+            return LocationServices.getSettingsClient(context);
+        }
+    };
+
+    private static volatile Factory installed = PLAY_SERVICES;
+
+    private LocationClients() {
+    }
+
+    /** The process-wide factory; {@link #PLAY_SERVICES} until {@link #install} is called. */
+    public static Factory get() {
+        return installed;
+    }
+
+    public static void install(Factory factory) {
+        installed = factory;
+    }
+}
@@ -0,0 +1,230 @@
+package com.islam.mobilesecurityhw1;
+
+import android.Manifest;
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.core.content.ContextCompat;
+
+import com.google.android.gms.location.CurrentLocationRequest;
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.Priority;
+import com.google.android.gms.tasks.CancellationTokenSource;
+
+import com.islam.mobilesecurityhw1.core.CheckMetrics;
+import com.islam.mobilesecurityhw1.core.LocationPolicy;
+
+/**
+ * Gets a location fix that satisfies a {@link LocationPolicy} with as little power as possible:
+ *
+ *  1. reuse the cached fix (getLastLocation) if it is fresh and accurate enough,
+ *  2. otherwise ask for a single, time-bounded fix at balanced-power accuracy,
+ *  3. and only if that isn't good enough, ask again at high accuracy.
+ *
+ * Only one acquisition runs at a time. Time from {@link #warmUp()} to the first acceptable fix is recorded.
+ * Call from the main thread; {@link #getAcceptedFix()} may be called from any thread.
+ */
+public class LocationEngine {
+
+    private static final String TAG = "LocationEngine";
+
+    public interface Listener {
+        void onFixAccepted(Location location);
+
+        void onLocationFailed(Exception e);
+    }
+
+    private final Context context;
+    private final FusedLocationProviderClient client;
+    private final LocationPolicy policy;
+    private final Listener listener;
+
+    private volatile Location acceptedFix;
+
+    private CancellationTokenSource pendingRequest;
+    private boolean acquiring = false;
+    private long acquireStartMs;
+    // Bumped by every warmUp() and stop(); callbacks from an older acquisition are dropped
+    private int generation = 0;
+
+    // Time-to-first-acceptable-fix stats, in ms
+    private int fixCount = 0;
+    private long lastTimeToFixMs = -1;
+    private long totalTimeToFixMs = 0;
+    private long maxTimeToFixMs = 0;
+
+    public LocationEngine(Context context, FusedLocationProviderClient client, LocationPolicy policy, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.client = client;
+        this.policy = policy;
+        this.listener = listener;
+    }
+
+    /**
+     * The last accepted fix if it still meets the age limit, otherwise null.
+     */
+    public Location getAcceptedFix() {
+        Location fix = acceptedFix;
+        if (fix == null || !isAcceptable(fix)) {
+            return null;
+        }
+        return fix;
+    }
+
+    /**
+     * Seeds the cache with a fix from a previous run; kept only if it still meets the policy.
+     *
+     * @param fixTimeMs wall-clock time of the fix
+     * @return true if the fix was accepted
+     */
+    public boolean restore(double latitude, double longitude, float accuracyMeters, long fixTimeMs) {
+        if (acceptedFix != null) return false;
+
+        long ageMs = System.currentTimeMillis() - fixTimeMs;
+        if (ageMs < 0) return false; // wall clock went backwards: age unknown
+
+        Location fix = new Location("warm-start");
+        fix.setLatitude(latitude);
+        fix.setLongitude(longitude);
+        fix.setAccuracy(accuracyMeters);
+        fix.setTime(fixTimeMs);
+        fix.setElapsedRealtimeNanos(SystemClock.elapsedRealtimeNanos() - ageMs * 1_000_000);
+        if (!isAcceptable(fix)) return false;
+
+        acceptedFix = fix;
+        return true;
+    }
+
+    /**
+     * Starts acquiring a fix unless an acceptable one is cached or an acquisition is already running.
+     */
+    public void warmUp() {
+        if (acquiring || getAcceptedFix() != null) return;
+        if (!hasPermission()) return;
+
+        acquiring = true;
+        acquireStartMs = SystemClock.elapsedRealtime();
+        requestLastLocation(++generation);
+    }
+
+    /**
+     * Cancels any running acquisition; the cached fix is kept.
+     */
+    public void stop() {
+        if (pendingRequest != null) {
+            pendingRequest.cancel();
+            pendingRequest = null;
+        }
+        acquiring = false;
+        generation++;
+    }
+
+    public long getLastTimeToFixMs() {
+        return lastTimeToFixMs;
+    }
+
+    public long getAverageTimeToFixMs() {
+        return fixCount == 0 ? -1 : totalTimeToFixMs / fixCount;
+    }
+
+    public long getMaxTimeToFixMs() {
+        return maxTimeToFixMs;
+    }
+
+    // ===== Acquisition steps =====
+
+    @SuppressLint("MissingPermission")
+    private void requestLastLocation(int gen) {
+        // getLastLocation() can't be cancelled, so a stale result is recognised by its generation
+        client.getLastLocation()
+                .addOnSuccessListener(location -> {
+                    if (isStale(gen)) return;
+                    if (location != null && isAcceptable(location)) {
+                        accept(location, "cached");
+                    } else {
+                        requestCurrentLocation(gen, Priority.PRIORITY_BALANCED_POWER_ACCURACY);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    if (isStale(gen)) return;
+                    fail(e);
+                });
+    }
+
+    @SuppressLint("MissingPermission")
+    private void requestCurrentLocation(int gen, int priority) {
+        if (!hasPermission()) {
+            acquiring = false;
+            return;
+        }
+
+        CurrentLocationRequest request = new CurrentLocationRequest.Builder()
+                .setPriority(priority)
+                .setMaxUpdateAgeMillis(policy.getMaxAgeMs())
+                .setDurationMillis(policy.getRequestTimeoutMs())
+                .build();
+
+        CancellationTokenSource cancellation = new CancellationTokenSource();
+        pendingRequest = cancellation;
+        client.getCurrentLocation(request, cancellation.getToken())
+                .addOnSuccessListener(location -> {
+                    if (pendingRequest != cancellation || isStale(gen)) return;
+                    pendingRequest = null;
+
+                    if (location != null && isAcceptable(location)) {
+                        accept(location, priority == Priority.PRIORITY_HIGH_ACCURACY ? "high-accuracy" : "balanced");
+                    } else if (priority != Priority.PRIORITY_HIGH_ACCURACY) {
+                        // Balanced wasn't good enough => escalate
+                        requestCurrentLocation(gen, Priority.PRIORITY_HIGH_ACCURACY);
+                    } else {
+                        // Nothing acceptable this round; the next warmUp() starts over
+                        acquiring = false;
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    if (pendingRequest != cancellation || isStale(gen)) return;
+                    pendingRequest = null;
+                    fail(e);
+                });
+    }
+
+    private void accept(Location location, String source) {
+        acceptedFix = location;
+        TraceRecorder.onLocation(location);
+        acquiring = false;
+        listener.onFixAccepted(location);
+
+        long timeToFixMs = SystemClock.elapsedRealtime() - acquireStartMs;
+        CheckMetrics.get().record("location_fix", timeToFixMs * 1_000_000, true);
+        lastTimeToFixMs = timeToFixMs;
+        totalTimeToFixMs += timeToFixMs;
+        maxTimeToFixMs = Math.max(maxTimeToFixMs, timeToFixMs);
+        fixCount++;
+        Log.d(TAG, "Accepted " + source + " fix in " + timeToFixMs + " ms (accuracy "
+                + location.getAccuracy() + " m, avg " + getAverageTimeToFixMs() + " ms over " + fixCount + ")");
+    }
+
+    private void fail(Exception e) {
+        acquiring = false;
+        CheckMetrics.get().record("location_fix", (SystemClock.elapsedRealtime() - acquireStartMs) * 1_000_000, false);
+        listener.onLocationFailed(e);
+    }
+
+    private boolean isStale(int gen) {
+        return !acquiring || gen != generation;
+    }
+
+    private boolean isAcceptable(Location location) {
+        long ageMs = (SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos()) / 1_000_000;
+        return policy.isAcceptable(ageMs, location.hasAccuracy(), location.getAccuracy());
+    }
+
+    private boolean hasPermission() {
+        return ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+}
@@ -0,0 +1,31 @@
+package com.islam.mobilesecurityhw1;
+
+import android.content.Context;
+
+import com.islam.mobilesecurityhw1.core.AuditLog;
+
+import java.io.File;
+
+/**
+ * Process-wide {@link AuditLog} of login attempts in files/audit/, written on its own thread.
+ */
+public final class LoginAudit {
+
+    private static final String LOG_PATH = "audit/login.log";
+    private static final int QUEUE_CAPACITY = 256;
+    private static final long MAX_FILE_BYTES = 256 * 1024;
+    private static final int MAX_BACKUPS = 3;
+
+    private static AuditLog instance;
+
+    private LoginAudit() {
+    }
+
+    public static synchronized AuditLog get(Context context) {
+        if (instance == null) {
+            File file = new File(context.getApplicationContext().getFilesDir(), LOG_PATH);
+            instance = new AuditLog(file, QUEUE_CAPACITY, MAX_FILE_BYTES, MAX_BACKUPS);
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,49 @@
+package com.islam.mobilesecurityhw1;
+
+import android.content.Context;
+
+import com.islam.mobilesecurityhw1.core.CheckPlan;
+import com.islam.mobilesecurityhw1.core.LoginPolicy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Loads assets/login_policy.properties once per process and compiles it into a {@link CheckPlan}.
+ */
+public final class LoginPolicyLoader {
+
+    private static final String POLICY_ASSET = "login_policy.properties";
+
+    private static LoginPolicy policy;
+    private static CheckPlan plan;
+
+    private LoginPolicyLoader() {
+    }
+
+    public static synchronized LoginPolicy getPolicy(Context context) {
+        if (policy == null) {
+            policy = load(context);
+        }
+        return policy;
+    }
+
+    public static synchronized CheckPlan getPlan(Context context) {
+        if (plan == null) {
+            plan = new CheckPlan(getPolicy(context));
+        }
+        return plan;
+    }
+
+    private static LoginPolicy load(Context context) {
+        Properties properties = new Properties();
+        try (InputStream in = context.getAssets().open(POLICY_ASSET)) {
+            properties.load(in);
+        } catch (IOException e) {
+            // The policy ships inside the APK; not finding it is a packaging bug
+            throw new IllegalStateException("Cannot read " + POLICY_ASSET, e);
+        }
+        return LoginPolicy.fromProperties(properties);
+    }
+}
@@ -2,52 +2,82 @@ package com.islam.mobilesecurityhw1;
 
 import android.Manifest;
 import android.content.ActivityNotFoundException;
-import android.content.ContentResolver;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.pm.PackageManager;
 import android.location.Location;
 import android.net.Uri;
-import android.os.BatteryManager;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.provider.Settings;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.Toast;
-import android.hardware.Sensor;
-import android.hardware.SensorEvent;
-import android.hardware.SensorEventListener;
-import android.hardware.SensorManager;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
 
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
 
 import com.google.android.gms.common.api.ResolvableApiException;
 import com.google.android.gms.location.*;
-
-public class MainActivity extends AppCompatActivity implements SensorEventListener {
+import com.islam.mobilesecurityhw1.core.AttemptCoordinator;
+import com.islam.mobilesecurityhw1.core.AuditLog;
+import com.islam.mobilesecurityhw1.core.AuditLogReader;
+import com.islam.mobilesecurityhw1.core.AuditRecord;
+import com.islam.mobilesecurityhw1.core.CheckMetrics;
+import com.islam.mobilesecurityhw1.core.DeviceState;
+import com.islam.mobilesecurityhw1.core.LocationAccessStateMachine;
+import com.islam.mobilesecurityhw1.core.LoginCheck;
+import com.islam.mobilesecurityhw1.core.LoginCheckEvaluator;
+import com.islam.mobilesecurityhw1.core.LoginInputs;
+import com.islam.mobilesecurityhw1.core.LoginPolicy;
+import com.islam.mobilesecurityhw1.core.LoginSnapshot;
+import com.islam.mobilesecurityhw1.core.OrientationState;
+import com.islam.mobilesecurityhw1.core.Readiness;
+import com.islam.mobilesecurityhw1.core.SensorDutyCycle;
+import com.islam.mobilesecurityhw1.core.TokenBucket;
+import com.islam.mobilesecurityhw1.core.WarmStartSnapshot;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class MainActivity extends AppCompatActivity {
 
     // ======= ADJUSTABLE PARAMETERS =======
-    private static final String PASSWORD_PREFIX = "10s20w30q";
-    private static final float DISTANCE_THRESHOLD = 5000f; // 5 km
-    private static final double ARRABAH_LAT = 32.85254314059482;
-    private static final double ARRABAH_LNG = 35.33675279027549;
-    private static final double TEL_AVIV_LAT = 32.08684812926745;
-    private static final double TEL_AVIV_LNG = 34.7895403545493;
+    // Password, brightness, zones, orientation tolerances and messages: assets/login_policy.properties
+    private static final long LOGIN_DEADLINE_MS = 2000; // all checks must finish within this
+    private static final int LOGIN_BURST = 3;            // attempts allowed back to back...
+    private static final long LOGIN_REFILL_MS = 1000;    // ...then one per second
+    private static final int FAILURES_BEFORE_BACKOFF = 3;
+    private static final long BACKOFF_BASE_MS = 2000;    // doubles with each further failure
+    private static final long BACKOFF_MAX_MS = 30_000;
+    // A login with the sensors off waits at most this long for a fresh orientation
+    private static final long ORIENTATION_SETTLE_TIMEOUT_MS = 1000;
+    // How old a previous run's state may be and still be reused on a cold start
+    private static final long WARM_START_SETTINGS_MAX_AGE_MS = 10 * 60_000;
+    private static final long WARM_START_ORIENTATION_MAX_AGE_MS = 60_000;
+    // One thread waits on the plan, the others run an attempt's checks all at once
+    private static final int LOGIN_THREADS = 1 + LoginPolicy.ALL_CHECKS.size();
     // =====================================
 
+    private static final int REQUEST_CHECK_SETTINGS = 1001;
+    private static final String AUDIT_DUMP_ARG = "audit";
+
     private EditText passwordField;
     private Button loginButton;
 
-    private FusedLocationProviderClient fusedLocationClient;
+    // Play Services and sensors are created on first use, after the first frame
     private SettingsClient settingsClient;
-    private Location currentLocation;
 
     // Permissions
     private boolean locationPermissionGranted = false;
@@ -56,49 +86,116 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
 
     private ActivityResultLauncher<String> requestPermissionLauncher;
 
-    // Sensors
-    private SensorManager sensorManager;
-    private Sensor accelerometer;
-    private Sensor magnetometer;
+    // Login checks
+    private ExecutorService loginExecutor;
+    private AttemptCoordinator attemptCoordinator;
+    private LoginCheckEvaluator loginCheckEvaluator;
 
-    private float[] gravity;
-    private float[] geomagnetic;
-    private boolean isDeviceFlat = false;
-    private boolean isDevicePointingNorth = false;
+    // Battery / WiFi / brightness, orientation and location, shared with ReadinessService.
+    // Sensors run only while the password field has focus or a login (or a bound client) needs them.
+    private DeviceSources sources;
+    private boolean sourcesAcquired = false;
+    private final DeviceSources.Listener sourcesListener = new DeviceSources.Listener() {
+        @Override
+        public void onSourcesChanged() {
+            readinessUpdates.invalidate();
+        }
+
+        @Override
+        public void onLocationFailed(Exception e) {
+            if (resumed) showToast("Failed to get location.", Toast.LENGTH_SHORT);
+        }
+    };
 
     private LocationSettingsRequest locationSettingsRequest;
+    private LocationAccessStateMachine locationAccess;
+
+    private StartupProbe startupProbe;
+
+    // Live status of every condition, redrawn at most once per frame
+    private ReadinessPanel readinessPanel;
+    private FrameCoalescer readinessUpdates;
+    private boolean passwordEntered = false;
+
+    // The one dialog or toast currently showing a result
+    private AlertDialog currentDialog;
+    private Toast currentToast;
+    private boolean resumed = false;
+
+    // The previous run's state, read in the background, until it is applied; saved again on every pause
+    private WarmStartSnapshot warmStart;
+    private boolean warmStartLoaded = false;
+    private boolean warmStartApplied = false;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
+        long createNanos = System.nanoTime();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        startupProbe = new StartupProbe(this, createNanos);
 
         passwordField = findViewById(R.id.password_field);
         loginButton = findViewById(R.id.login_button);
 
-        // Initialize location & sensor managers
-        fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
-        settingsClient = LocationServices.getSettingsClient(this);
+        readinessUpdates = new FrameCoalescer(this::renderReadiness);
+        passwordField.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                // The panel shows only whether a password is entered, so only that flip redraws it
+                boolean entered = s.length() > 0;
+                if (entered != passwordEntered) {
+                    passwordEntered = entered;
+                    readinessUpdates.invalidate();
+                }
+            }
+        });
+        // Focus before the first frame is picked up in startTracking()
+        passwordField.setOnFocusChangeListener((view, hasFocus) -> {
+            if (sourcesAcquired) {
+                getOrientationTracker().setDemand(SensorDutyCycle.DEMAND_INPUT_FOCUS, hasFocus);
+            }
+        });
 
-        sensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
-        accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
-        magnetometer  = sensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
+        if (BuildConfig.DEBUG && !CheckMetrics.get().isEnabled()) {
+            CheckMetrics.install(CheckMetrics.enabled(new AndroidTracer()));
+        }
+        locationAccess = LocationAccess.get(this);
+        WarmStart.load(this, this::onWarmStartLoaded);
+        sources = DeviceSources.get(this);
+        sources.addListener(sourcesListener);
 
         // Prepare the permission request launcher
         requestPermissionLauncher = registerForActivityResult(
                 new ActivityResultContracts.RequestPermission(),
                 isGranted -> {
                     // Called when the user responds to the permission dialog
+                    locationAccess.onPermissionResult(isGranted);
                     if (isGranted) {
-                        locationPermissionGranted = true;
-                        checkLocationSettings();
+                        setLocationPermissionGranted(true);
+                        updateLocationAccess();
                     } else {
                         // User denied. We'll interpret final steps in handleLocationPermissionOnLoginAttempt()
-                        locationPermissionGranted = false;
+                        setLocationPermissionGranted(false);
                     }
                 }
         );
 
+        loginExecutor = Executors.newFixedThreadPool(LOGIN_THREADS);
+        loginCheckEvaluator = new LoginCheckEvaluator(loginExecutor);
+        attemptCoordinator = new AttemptCoordinator(
+                new TokenBucket(LOGIN_BURST, TimeUnit.MILLISECONDS.toNanos(LOGIN_REFILL_MS)),
+                FAILURES_BEFORE_BACKOFF,
+                TimeUnit.MILLISECONDS.toNanos(BACKOFF_BASE_MS),
+                TimeUnit.MILLISECONDS.toNanos(BACKOFF_MAX_MS));
+
         // Attempt login on button click
         loginButton.setOnClickListener(view -> attemptLogin());
     }
@@ -106,92 +203,331 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
     @Override
     protected void onResume() {
         super.onResume();
-        // Register sensors
-        if (accelerometer != null) {
-            sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_NORMAL);
+        resumed = true;
+        // A settings resolution whose result never came back would otherwise block location for good
+        locationAccess.onResumed();
+        // On a cold start, let the first frame go out before any sensor or Play Services work
+        startupProbe.runAfterFirstFrame(this::startTracking);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        resumed = false;
+        readinessUpdates.stop();
+        if (warmStartApplied) saveWarmStart();
+        if (sourcesAcquired) {
+            // Our reasons for the sensors go; the sources stop unless ReadinessService still has clients
+            getOrientationTracker().setDemand(SensorDutyCycle.DEMAND_INPUT_FOCUS, false);
+            getOrientationTracker().setDemand(SensorDutyCycle.DEMAND_LOGIN_PENDING, false);
+            sources.release();
+            sourcesAcquired = false;
+        }
+        TraceRecorder.stop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        loginExecutor.shutdownNow();
+        sources.removeListener(sourcesListener);
+        dismissResultSurface();
+    }
+
+    /**
+     * Check metrics for debugging: adb shell dumpsys activity com.islam.mobilesecurityhw1/.MainActivity
+     * Add "audit" to export the login audit log as CSV.
+     */
+    @Override
+    public void dump(@NonNull String prefix, @Nullable FileDescriptor fd, @NonNull PrintWriter writer, @Nullable String[] args) {
+        if (args != null && args.length > 0 && AUDIT_DUMP_ARG.equals(args[0])) {
+            dumpAuditLog(writer);
+            return;
+        }
+        super.dump(prefix, fd, writer, args);
+        writer.print(prefix);
+        writer.println("Login check metrics:");
+        writer.print(CheckMetrics.get().dump());
+        writer.print(prefix);
+        writer.println("Startup: " + startupProbe.getTimings());
+        writer.print(prefix);
+        writer.print("Main-thread stalls: " + MainThreadWatchdog.dump());
+        OrientationTracker tracker = sources.peekOrientationTracker();
+        if (tracker != null) {
+            writer.print(prefix);
+            writer.println("Sensors active: " + tracker.describeUsage());
+        }
+        AuditLog auditLog = LoginAudit.get(this);
+        writer.print(prefix);
+        writer.println("Audit log: " + auditLog.getWrittenCount() + " written, "
+                + auditLog.getDroppedCount() + " dropped, " + auditLog.getBatchCount() + " batches");
+    }
+
+    private void dumpAuditLog(PrintWriter writer) {
+        AuditLog auditLog = LoginAudit.get(this);
+        writer.println(AuditRecord.csvHeader());
+        try {
+            AuditLogReader.read(auditLog.getFile(), auditLog.getMaxBackups(), record -> writer.println(record.toCsv()));
+        } catch (IOException e) {
+            writer.println("Cannot read audit log: " + e);
+        }
+    }
+
+    private void startTracking() {
+        // Paused again before the first frame
+        if (!resumed) return;
+
+        if (BuildConfig.DEBUG && getIntent().getBooleanExtra(TraceRecorder.EXTRA_RECORD_TRACE, false)) {
+            TraceRecorder.start(this);
         }
-        if (magnetometer != null) {
-            sensorManager.registerListener(this, magnetometer, SensorManager.SENSOR_DELAY_NORMAL);
+
+        if (readinessPanel == null) {
+            readinessPanel = new ReadinessPanel(findViewById(R.id.readiness_panel), LoginPolicyLoader.getPolicy(this));
         }
 
+        if (warmStartLoaded) restoreWarmStart();
+
+        // Sensors register on the sensor thread once something needs a reading
+        sources.acquire();
+        sourcesAcquired = true;
+        getOrientationTracker().setDemand(SensorDutyCycle.DEMAND_INPUT_FOCUS, passwordField.hasFocus());
+        readinessUpdates.start();
+
         // Check permission state silently on every resume
         checkPermissionsStateSilently();
+        startupProbe.markLoginReady();
     }
 
-    @Override
-    protected void onPause() {
-        super.onPause();
-        // Unregister sensors
-        sensorManager.unregisterListener(this);
+    // ===== Warm start =====
+
+    private void onWarmStartLoaded(@Nullable WarmStartSnapshot snapshot) {
+        if (isDestroyed()) return;
+        warmStartLoaded = true;
+        warmStart = snapshot;
+        if (snapshot != null && snapshot.isPermissionRequested()) {
+            finePermissionRequestedOnce = true;
+        }
+        // Arrived after startTracking(): apply now; otherwise startTracking() will
+        if (sourcesAcquired) restoreWarmStart();
+    }
+
+    /**
+     * Reuses what the previous run knew, if fresh enough, so the first attempt doesn't have to wait
+     * for Play Services and the sensors. Live values replace it as they arrive.
+     */
+    private void restoreWarmStart() {
+        WarmStartSnapshot warm = warmStart;
+        warmStart = null;
+        warmStartApplied = true;
+        if (warm == null) return;
+
+        long now = System.currentTimeMillis();
+        // Shown on the readiness panel only; an attempt waits for the sensors to confirm it.
+        // Once the sensors are running they are newer than anything saved.
+        if (!sourcesAcquired && warm.hasOrientation() && isRecent(warm.getOrientationTimeMs(), now, WARM_START_ORIENTATION_MAX_AGE_MS)) {
+            getOrientationTracker().restore(warm.getOrientation());
+        }
+        if (checkSelfPermission(Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+        if (warm.isSettingsSatisfied() && isRecent(warm.getSavedAtMs(), now, WARM_START_SETTINGS_MAX_AGE_MS)) {
+            locationAccess.onPermissionChecked(true);
+            locationAccess.onSettingsRestored();
+        }
+        // The location engine applies its own age and accuracy limits
+        if (warm.hasFix() && getLocationEngine().restore(warm.getLatitude(), warm.getLongitude(),
+                warm.getAccuracyMeters(), warm.getFixTimeMs())) {
+            readinessUpdates.invalidate();
+        }
+    }
+
+    private void saveWarmStart() {
+        long now = System.currentTimeMillis();
+        WarmStartSnapshot.Builder snapshot = new WarmStartSnapshot.Builder()
+                .permission(locationPermissionGranted, finePermissionRequestedOnce)
+                .settingsSatisfied(locationAccess.isReady());
+        LocationEngine locationEngine = sources.peekLocationEngine();
+        Location fix = locationEngine == null ? null : locationEngine.getAcceptedFix();
+        if (fix != null) {
+            snapshot.fix(fix.getLatitude(), fix.getLongitude(), fix.getAccuracy(), fix.getTime());
+        }
+        // Only a reading the sensors confirmed; a restored one would just get older
+        OrientationTracker orientationTracker = sources.peekOrientationTracker();
+        if (orientationTracker != null && orientationTracker.isSettled()) {
+            snapshot.orientation(orientationTracker.getState(), now);
+        }
+        WarmStart.save(this, snapshot.build(now));
+    }
+
+    private static boolean isRecent(long timeMs, long nowMs, long maxAgeMs) {
+        long age = nowMs - timeMs;
+        return age >= 0 && age <= maxAgeMs;
+    }
+
+    // ===== Created on first use =====
+
+    private OrientationTracker getOrientationTracker() {
+        return sources.getOrientationTracker();
+    }
+
+    private LocationEngine getLocationEngine() {
+        return sources.getLocationEngine();
+    }
+
+    private SettingsClient getSettingsClient() {
+        if (settingsClient == null) {
+            settingsClient = LocationClients.get().settings(this);
+        }
+        return settingsClient;
     }
 
     /**
      * If we've never requested FINE location before, do a one-time silent request.
      */
     private void checkPermissionsStateSilently() {
+        MainThreadWatchdog.step("checkPermissionsStateSilently");
         int fineStatus = checkSelfPermission(Manifest.permission.ACCESS_FINE_LOCATION);
         if (fineStatus == PackageManager.PERMISSION_GRANTED) {
-            locationPermissionGranted = true;
-            checkLocationSettings();
+            setLocationPermissionGranted(true);
+            locationAccess.onPermissionChecked(true);
+            updateLocationAccess();
         } else {
-            locationPermissionGranted = false;
+            setLocationPermissionGranted(false);
+            locationAccess.onPermissionChecked(false);
             if (!finePermissionRequestedOnce) {
                 finePermissionRequestedOnce = true;
-                requestPermissionLauncher.launch(Manifest.permission.ACCESS_FINE_LOCATION);
+                requestFinePermission();
             }
         }
     }
 
+    /**
+     * Launches the permission dialog unless it is already showing.
+     */
+    private void requestFinePermission() {
+        MainThreadWatchdog.step("requestFinePermission");
+        if (locationAccess.beginPermissionRequest()) {
+            requestPermissionLauncher.launch(Manifest.permission.ACCESS_FINE_LOCATION);
+        }
+    }
+
     /**
      * The main login logic: if location is not granted, handle permission.
-     * Otherwise, do all checks: brightness, charging, WiFi, etc.
+     * Otherwise, run all checks (brightness, charging, WiFi, etc.) off the UI thread, within LOGIN_DEADLINE_MS.
      */
     private void attemptLogin() {
+        MainThreadWatchdog.step("attemptLogin");
+        TraceRecorder.onLoginAttempt();
+
         // If location not granted, handle that first
         if (!locationPermissionGranted) {
             handleLocationPermissionOnLoginAttempt();
             return;
         }
+        evaluateLogin();
+    }
 
-        // Location is granted => proceed with checks
-        if (!isBrightnessSufficient()) {
-            showErrorDialog("Screen brightness must be at least 50%.");
-            return;
+    /**
+     * Runs the checks once location permission is in place; the outcome goes to the audit log.
+     * Taps while an evaluation is running share its result; too many attempts are throttled.
+     */
+    private void evaluateLogin() {
+        MainThreadWatchdog.step("evaluateLogin");
+        switch (attemptCoordinator.onTap(System.nanoTime())) {
+            case JOINED:
+                return;
+            case THROTTLED:
+                long waitSeconds = (attemptCoordinator.getRetryDelayMs(System.nanoTime()) + 999) / 1000;
+                showToast("Too many attempts. Try again in " + waitSeconds + " s.", Toast.LENGTH_SHORT);
+                return;
+            case START:
+                break;
         }
+        // With the sensors off the orientation is a cached reading; give them a moment to confirm it
+        getOrientationTracker().setDemand(SensorDutyCycle.DEMAND_LOGIN_PENDING, true);
+        getOrientationTracker().runWhenSettled(this::runLoginChecks, ORIENTATION_SETTLE_TIMEOUT_MS);
+    }
 
-        String password = passwordField.getText().toString();
-        if (!isPasswordValid(password)) {
-            showErrorDialog("Password must contain the sum of your battery digits (e.g., battery=87 => sum=15).");
+    /**
+     * Captures the inputs and runs the plan; the orientation is as fresh as it is going to get.
+     */
+    private void runLoginChecks() {
+        // The wait for the sensors outlived the screen: onPause() released the sources, so drop the
+        // attempt rather than evaluate, audit and toast in the background. Never counted as a success.
+        if (isDestroyed() || !sourcesAcquired) {
+            attemptCoordinator.onFinished(System.nanoTime(), false);
             return;
         }
 
-        if (!isWifiConnected()) {
-            showErrorDialog("You must be connected to a WiFi network.");
-            return;
+        MainThreadWatchdog.step("runLoginChecks");
+        // GPS was left off earlier => give the settings check another go
+        if (locationAccess.getState() == LocationAccessStateMachine.State.SETTINGS_UNSATISFIED) {
+            locationAccess.invalidateSettings();
+            updateLocationAccess();
         }
 
-        if (!isDeviceCharging()) {
-            showErrorDialog("Device must be charging.");
-            return;
+        // Location is granted => proceed with checks. A cached or restored orientation may be from
+        // before the tap (or a previous process), so unless the sensors settled it counts as unmet.
+        OrientationState settled = getOrientationTracker().getSettledState();
+        boolean orientationKnown = settled != null;
+        LoginInputs inputs = captureLoginInputs(passwordField.getText(), orientationKnown ? settled : OrientationState.NONE);
+        if (!inputs.hasLocation()) {
+            // No usable fix yet => this attempt fails the zone check, but get one for the next
+            getLocationEngine().warmUp();
         }
+        long attemptTimeMs = System.currentTimeMillis();
+        loginCheckEvaluator.evaluate(LoginPolicyLoader.getPlan(this), buildLoginChecks(inputs), LOGIN_DEADLINE_MS,
+                ContextCompat.getMainExecutor(this), result -> {
+                    attemptCoordinator.onFinished(System.nanoTime(), result.isSuccess());
+                    getOrientationTracker().setDemand(SensorDutyCycle.DEMAND_LOGIN_PENDING, false);
+                    LoginAudit.get(this).append(AuditRecord.of(attemptTimeMs, inputs, result));
+                    onLoginResult(result, orientationKnown);
+                });
+    }
 
-        if (!isNearRequiredLocation()) {
-            showErrorDialog("You must be near Arrabah or Tel Aviv.");
-            return;
+    /**
+     * The login conditions in priority order: the first failing one is the one reported.
+     * UI state is captured here, on the UI thread; the plan then runs the checks off it.
+     */
+    private List<LoginCheck> buildLoginChecks(LoginInputs inputs) {
+        CheckMetrics metrics = CheckMetrics.get();
+        List<LoginCheck> checks = new ArrayList<>();
+        for (LoginCheck check : LoginPolicyLoader.getPolicy(this).buildChecks(inputs)) {
+            checks.add(metrics.instrument(check));
         }
+        return checks;
+    }
 
-        if (!isDeviceFlat) {
-            showErrorDialog("Device must be lying flat.");
-            return;
+    private LoginInputs captureLoginInputs(CharSequence password, OrientationState orientation) {
+        DeviceState device = sources.getDeviceStateMonitor().getState();
+
+        Location location = getLocationEngine().getAcceptedFix();
+        if (location == null) {
+            return LoginSnapshot.withoutLocation(password, device, orientation);
         }
+        return LoginSnapshot.withLocation(password, device, orientation, location.getLatitude(), location.getLongitude());
+    }
 
-        if (!isDevicePointingNorth) {
-            showErrorDialog("Device must be pointing north.");
+    /**
+     * @param orientationKnown false if the sensors hadn't settled, so flat / north were not really judged
+     */
+    private void onLoginResult(LoginCheckEvaluator.Result result, boolean orientationKnown) {
+        MainThreadWatchdog.step("onLoginResult");
+        if (isFinishing() || isDestroyed()) return;
+
+        if (!result.isSuccess()) {
+            String failed = result.getFailedCheck().getName();
+            if (!orientationKnown && (LoginPolicy.CHECK_FLAT.equals(failed) || LoginPolicy.CHECK_NORTH.equals(failed))) {
+                showToast("Couldn't read the device orientation yet. Hold it still and try again.", Toast.LENGTH_LONG);
+                return;
+            }
+            // The readiness panel already lists every unmet condition; name the one that decided it
+            showToast(result.getFailedCheck().getFailureMessage(), Toast.LENGTH_LONG);
             return;
         }
 
         // All conditions met
-        Toast.makeText(this, "Login Successful!", Toast.LENGTH_LONG).show();
+        showToast("Login Successful!", Toast.LENGTH_LONG);
     }
 
     /**
@@ -201,17 +537,22 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
      *  - Go to final instructions (if rationale is false => "Don't Ask Again")
      */
     private void handleLocationPermissionOnLoginAttempt() {
+        MainThreadWatchdog.step("handleLocationPermission");
         // Check coarse & fine status
         int fineStatus   = checkSelfPermission(Manifest.permission.ACCESS_FINE_LOCATION);
         int coarseStatus = checkSelfPermission(Manifest.permission.ACCESS_COARSE_LOCATION);
 
         // If user has fine => all good
         if (fineStatus == PackageManager.PERMISSION_GRANTED) {
-            locationPermissionGranted = true;
-            attemptLogin();
+            setLocationPermissionGranted(true);
+            locationAccess.onPermissionChecked(true);
+            evaluateLogin();
             return;
         }
 
+        LoginAudit.get(this).append(AuditRecord.noPermission(System.currentTimeMillis(),
+                sources.getDeviceStateMonitor().getState(), getOrientationTracker().getState()));
+
         // If user only has approximate (coarse) but not fine
         if (coarseStatus == PackageManager.PERMISSION_GRANTED && fineStatus != PackageManager.PERMISSION_GRANTED) {
             // They only have approximate location => ask them for precise
@@ -236,36 +577,32 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
      * Dialog explaining why we need precise location; user can accept or exit.
      */
     private void showRationaleDialog() {
-        new AlertDialog.Builder(this)
+        MainThreadWatchdog.step("showRationaleDialog");
+        showDialog(new AlertDialog.Builder(this)
                 .setTitle("Location Permission Needed")
                 .setMessage("This app requires precise location to proceed. Please grant it now.")
                 .setCancelable(false)
-                .setPositiveButton("Grant", (dialog, which) ->
-                        requestPermissionLauncher.launch(Manifest.permission.ACCESS_FINE_LOCATION)
-                )
-                .setNegativeButton("Exit", (dialog, which) -> finish())
-                .show();
+                .setPositiveButton("Grant", (dialog, which) -> requestFinePermission())
+                .setNegativeButton("Exit", (dialog, which) -> finish()));
     }
 
     /**
      * If user has only approximate location, prompt them to enable precise location.
      */
     private void showPreciseLocationRequiredDialog() {
-        new AlertDialog.Builder(this)
+        MainThreadWatchdog.step("showPreciseLocationDialog");
+        showDialog(new AlertDialog.Builder(this)
                 .setTitle("Precise Location Required")
                 .setMessage("You've only granted approximate location. Please enable 'Use precise location' in the app's permissions.")
                 .setCancelable(false)
-                .setPositiveButton("Request Again", (dialog, which) -> {
-                    requestPermissionLauncher.launch(Manifest.permission.ACCESS_FINE_LOCATION);
-                })
+                .setPositiveButton("Request Again", (dialog, which) -> requestFinePermission())
                 .setNegativeButton("Settings", (dialog, which) -> {
                     // Direct user to app settings
                     Intent intent = new Intent(Settings.ACTION_APPLICATION_DETAILS_SETTINGS);
                     Uri uri = Uri.fromParts("package", getPackageName(), null);
                     intent.setData(uri);
                     startActivity(intent);
-                })
-                .show();
+                }));
     }
 
     /**
@@ -273,218 +610,123 @@ public class MainActivity extends AppCompatActivity implements SensorEventListen
      * telling them to enable permissions manually.
      */
     private void showFinalInstructionsScreen() {
+        MainThreadWatchdog.step("showFinalInstructions");
         // Could be a dialog, or a separate activity. Example: open a new activity:
         startActivity(new Intent(this, FinalPermissionActivity.class));
         finish();
     }
 
+    /**
+     * Moves location access forward: warm up location if ready, otherwise start a settings check
+     * unless one is already in flight or its result is cached.
+     */
+    private void updateLocationAccess() {
+        MainThreadWatchdog.step("updateLocationAccess");
+        if (locationAccess.isReady()) {
+            getLocationEngine().warmUp();
+        } else if (locationAccess.beginSettingsCheck()) {
+            checkLocationSettings();
+        }
+    }
+
     /**
      * Checks if the user meets location settings like GPS high-accuracy.
      */
     private void checkLocationSettings() {
-        if (!locationPermissionGranted) return;
-
-        LocationRequest locationRequest = LocationRequest.create()
-                .setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
-
-        locationSettingsRequest = new LocationSettingsRequest.Builder()
-                .addLocationRequest(locationRequest)
-                .build();
+        MainThreadWatchdog.step("checkLocationSettings");
+        if (locationSettingsRequest == null) {
+            LocationRequest locationRequest = LocationRequest.create()
+                    .setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
+
+            locationSettingsRequest = new LocationSettingsRequest.Builder()
+                    .addLocationRequest(locationRequest)
+                    .build();
+        }
 
-        SettingsClient client = LocationServices.getSettingsClient(this);
-        client.checkLocationSettings(locationSettingsRequest)
-                .addOnSuccessListener(response -> getLocationUpdate())
+        long startNanos = System.nanoTime();
+        getSettingsClient().checkLocationSettings(locationSettingsRequest)
+                .addOnSuccessListener(response -> {
+                    CheckMetrics.get().record("settings_check", System.nanoTime() - startNanos, true);
+                    locationAccess.onSettingsResult(LocationAccessStateMachine.SettingsResult.SATISFIED);
+                    updateLocationAccess();
+                })
                 .addOnFailureListener(e -> {
+                    CheckMetrics.get().record("settings_check", System.nanoTime() - startNanos, false);
                     if (e instanceof ResolvableApiException) {
+                        locationAccess.onSettingsResult(LocationAccessStateMachine.SettingsResult.RESOLVABLE);
                         try {
                             ResolvableApiException resolvable = (ResolvableApiException) e;
-                            resolvable.startResolutionForResult(MainActivity.this, 1001);
+                            resolvable.startResolutionForResult(MainActivity.this, REQUEST_CHECK_SETTINGS);
                         } catch (ActivityNotFoundException ex) {
-                            Toast.makeText(MainActivity.this, "Please enable GPS manually.", Toast.LENGTH_SHORT).show();
+                            locationAccess.onResolutionResult(false);
+                            showToast("Please enable GPS manually.", Toast.LENGTH_SHORT);
                         } catch (Exception ex) {
+                            locationAccess.onResolutionResult(false);
                             ex.printStackTrace();
                         }
                     } else {
+                        locationAccess.onSettingsResult(LocationAccessStateMachine.SettingsResult.UNSATISFIED);
                         showGPSDisabledDialog();
                     }
                 });
     }
 
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (requestCode == REQUEST_CHECK_SETTINGS) {
+            locationAccess.onResolutionResult(resultCode == RESULT_OK);
+            updateLocationAccess();
+        }
+    }
+
     private void showGPSDisabledDialog() {
-        new AlertDialog.Builder(this)
+        MainThreadWatchdog.step("showGPSDisabledDialog");
+        showDialog(new AlertDialog.Builder(this)
                 .setTitle("GPS Required")
                 .setMessage("GPS is disabled. Please enable it to proceed.")
                 .setCancelable(false)
                 .setPositiveButton("Enable GPS", (dialog, which) ->
                         startActivity(new Intent(Settings.ACTION_LOCATION_SOURCE_SETTINGS))
                 )
-                .setNegativeButton("Exit", (dialog, which) -> finish())
-                .show();
+                .setNegativeButton("Exit", (dialog, which) -> finish()));
     }
 
-    private void getLocationUpdate() {
-        if (!locationPermissionGranted) return;
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
-            return;
-        }
-
-        fusedLocationClient.getLastLocation()
-                .addOnSuccessListener(location -> {
-                    if (location != null) {
-                        currentLocation = location;
-                    } else {
-                        requestNewLocationData();
-                    }
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(MainActivity.this, "Failed to get location.", Toast.LENGTH_SHORT).show()
-                );
+    private void setLocationPermissionGranted(boolean granted) {
+        locationPermissionGranted = granted;
+        readinessUpdates.invalidate();
     }
 
-    private void requestNewLocationData() {
-        if (!locationPermissionGranted) return;
-
-        LocationRequest locationRequest = LocationRequest.create()
-                .setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY)
-                .setInterval(10000);
-
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
-            return;
-        }
-
-        fusedLocationClient.requestLocationUpdates(locationRequest, locationCallback, null);
+    private void renderReadiness() {
+        if (readinessPanel == null) return;
+        // Never judge the typed password here: that would be an unthrottled, unaudited oracle.
+        // Its row shows only whether something is entered; attemptLogin() checks the value.
+        Readiness readiness = Readiness.evaluate(LoginPolicyLoader.getPolicy(this),
+                locationPermissionGranted, captureLoginInputs("", getOrientationTracker().getState()));
+        readinessPanel.render(readiness.with(LoginPolicy.CHECK_PASSWORD, passwordEntered));
     }
 
-    private final LocationCallback locationCallback = new LocationCallback() {
-        @Override
-        public void onLocationResult(LocationResult locationResult) {
-            super.onLocationResult(locationResult);
-            if (locationResult.getLastLocation() != null) {
-                currentLocation = locationResult.getLastLocation();
-                fusedLocationClient.removeLocationUpdates(this);
-            }
-        }
-    };
+    // ===== Result surface: at most one dialog or toast at a time =====
 
-    // ====== Checks: Brightness, Password, Battery, WiFi, etc. =======
-
-    private boolean isBrightnessSufficient() {
-        try {
-            ContentResolver cr = getContentResolver();
-            int brightness = Settings.System.getInt(cr, Settings.System.SCREEN_BRIGHTNESS);
-            return brightness >= 128; // ~50% of 255
-        } catch (Settings.SettingNotFoundException e) {
-            e.printStackTrace();
-            return false;
-        }
+    private void showDialog(AlertDialog.Builder builder) {
+        dismissResultSurface();
+        currentDialog = builder.show();
     }
 
-    /**
-     * The password must be PASSWORD_PREFIX + the sum of the digits of current battery level.
-     * e.g. battery=87 => sum=15 => correct password = "10s20w30q15"
-     */
-    private boolean isPasswordValid(String inputPassword) {
-        int sumBatteryDigits = sumOfBatteryDigits();
-        String correctPassword = PASSWORD_PREFIX + sumBatteryDigits;
-        return inputPassword.equals(correctPassword);
+    private void showToast(String text, int duration) {
+        dismissResultSurface();
+        currentToast = Toast.makeText(this, text, duration);
+        currentToast.show();
     }
 
-    private int sumOfBatteryDigits() {
-        int batteryLevel = getBatteryLevel();
-        int sum = 0;
-        while (batteryLevel > 0) {
-            sum += batteryLevel % 10;
-            batteryLevel /= 10;
+    private void dismissResultSurface() {
+        if (currentDialog != null) {
+            currentDialog.dismiss();
+            currentDialog = null;
         }
-        return sum;
-    }
-
-    private int getBatteryLevel() {
-        BatteryManager bm = (BatteryManager) getSystemService(BATTERY_SERVICE);
-        return bm.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY);
-    }
-
-    private boolean isWifiConnected() {
-        ConnectivityManager cm = (ConnectivityManager) getSystemService(CONNECTIVITY_SERVICE);
-        NetworkInfo info = cm != null ? cm.getActiveNetworkInfo() : null;
-        return info != null && info.isConnected() && info.getType() == ConnectivityManager.TYPE_WIFI;
-    }
-
-    /**
-     * Use a broadcast check for charging or full
-     */
-    private boolean isDeviceCharging() {
-        IntentFilter ifilter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
-        Intent batteryStatus = registerReceiver(null, ifilter);
-        if (batteryStatus == null) {
-            return false;
-        }
-        int status = batteryStatus.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
-        return status == BatteryManager.BATTERY_STATUS_CHARGING
-                || status == BatteryManager.BATTERY_STATUS_FULL;
-    }
-
-    private boolean isNearRequiredLocation() {
-        if (currentLocation == null) {
-            getLocationUpdate();
-            return false;
-        }
-
-        Location arrabah = new Location("Arrabah");
-        arrabah.setLatitude(ARRABAH_LAT);
-        arrabah.setLongitude(ARRABAH_LNG);
-
-        Location telAviv = new Location("TelAviv");
-        telAviv.setLatitude(TEL_AVIV_LAT);
-        telAviv.setLongitude(TEL_AVIV_LNG);
-
-        float distArrabah = currentLocation.distanceTo(arrabah);
-        float distTelAviv = currentLocation.distanceTo(telAviv);
-
-        return (distArrabah <= DISTANCE_THRESHOLD) || (distTelAviv <= DISTANCE_THRESHOLD);
-    }
-
-    private void showErrorDialog(String message) {
-        new AlertDialog.Builder(this)
-                .setTitle("Login Error")
-                .setMessage(message)
-                .setPositiveButton("OK", null)
-                .show();
-    }
-
-    // ===== Sensor handling for flatness & direction =====
-    @Override
-    public void onSensorChanged(SensorEvent event) {
-        if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
-            gravity = event.values.clone();
-        } else if (event.sensor.getType() == Sensor.TYPE_MAGNETIC_FIELD) {
-            geomagnetic = event.values.clone();
-        }
-
-        if (gravity != null && geomagnetic != null) {
-            float[] R = new float[9];
-            float[] I = new float[9];
-            boolean success = SensorManager.getRotationMatrix(R, I, gravity, geomagnetic);
-            if (success) {
-                float[] orientation = new float[3];
-                SensorManager.getOrientation(R, orientation);
-
-                float azimuth = (float) Math.toDegrees(orientation[0]);
-                float pitch   = (float) Math.toDegrees(orientation[1]);
-                float roll    = (float) Math.toDegrees(orientation[2]);
-
-                // Device is flat if pitch & roll are near 0
-                isDeviceFlat = (Math.abs(pitch) < 10 && Math.abs(roll) < 10);
-
-                // Device pointing north if azimuth is within ±15° of 0
-                float normalizedAzimuth = (azimuth + 360) % 360;
-                isDevicePointingNorth = (normalizedAzimuth < 15 || normalizedAzimuth > 345);
-            }
+        if (currentToast != null) {
+            currentToast.cancel();
+            currentToast = null;
         }
     }
-
-    @Override
-    public void onAccuracyChanged(Sensor sensor, int accuracy) {
-        // Not used
-    }
 }
@@ -0,0 +1,77 @@
+package com.islam.mobilesecurityhw1;
+
+import android.os.Looper;
+import android.util.Log;
+import android.util.Printer;
+
+import androidx.annotation.Nullable;
+
+import com.islam.mobilesecurityhw1.core.StallDetector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every message the main looper dispatches, using the looper's message logging hook, and
+ * keeps the ones over budget in a {@link StallDetector}. Code on the login and permission paths
+ * names itself with {@link #step} so a stall shows what was running.
+ *
+ * With a printer installed the looper formats two log lines per message, so this is meant for
+ * debug builds only. Looper can hold a single printer and has no getter for it, so code that
+ * wants its own message logging passes its printer to {@link #install} to be chained.
+ */
+public final class MainThreadWatchdog implements Printer {
+
+    private static final String TAG = "MainThreadWatchdog";
+    private static final int CAPACITY = 32;
+
+    private static volatile MainThreadWatchdog installed;
+
+    private final StallDetector detector;
+    private final Printer next;
+
+    private MainThreadWatchdog(long budgetMs, Printer next) {
+        this.detector = new StallDetector(TimeUnit.MILLISECONDS.toNanos(budgetMs), CAPACITY);
+        this.next = next;
+    }
+
+    /**
+     * Starts watching the main looper. Call on the main thread; later calls are ignored.
+     *
+     * @param budgetMs dispatches longer than this are recorded and logged
+     * @param next     printer that should keep receiving the looper's lines, or null
+     */
+    public static void install(long budgetMs, @Nullable Printer next) {
+        if (installed != null) return;
+        MainThreadWatchdog watchdog = new MainThreadWatchdog(budgetMs, next);
+        Looper.getMainLooper().setMessageLogging(watchdog);
+        installed = watchdog;
+    }
+
+    /**
+     * Names the step running in the current main-thread dispatch. No-op if not installed.
+     */
+    public static void step(String name) {
+        MainThreadWatchdog watchdog = installed;
+        if (watchdog != null) watchdog.detector.step(name);
+    }
+
+    /** Summary and latest stalls, or a note if the watchdog isn't installed. */
+    public static String dump() {
+        MainThreadWatchdog watchdog = installed;
+        return watchdog == null ? "Main-thread watchdog not installed\n" : watchdog.detector.dump();
+    }
+
+    // ===== Called by the main looper around each dispatch =====
+    @Override
+    public void println(String line) {
+        if (next != null) next.println(line);
+        if (line.startsWith(">>>>> Dispatching")) {
+            detector.begin(System.nanoTime(), line);
+        } else if (line.startsWith("<<<<< Finished")) {
+            StallDetector.Stall stall = detector.end(System.nanoTime(), System.currentTimeMillis());
+            if (stall != null) {
+                Log.w(TAG, "Main thread stalled " + stall);
+            }
+        }
+    }
+}
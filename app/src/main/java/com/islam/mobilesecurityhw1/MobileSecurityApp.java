@@ -0,0 +1,39 @@
+package com.islam.mobilesecurityhw1;
+
+import android.app.Application;
+import android.os.StrictMode;
+
+/**
+ * Process-wide setup that has to happen before any activity. Debug builds get StrictMode and
+ * the main-thread watchdog; release builds get neither, since both cost work on every message.
+ * Also owns the shared {@link DeviceSources}.
+ */
+public class MobileSecurityApp extends Application {
+
+    // A main-thread dispatch longer than this is recorded as a stall (about three frames at 60 Hz)
+    private static final long STALL_BUDGET_MS = 50;
+
+    private DeviceSources deviceSources;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        if (BuildConfig.DEBUG) {
+            // Disk or network work on the main thread shows up in logcat
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .detectNetwork()
+                    .penaltyLog()
+                    .build());
+            MainThreadWatchdog.install(STALL_BUDGET_MS, null);
+        }
+        // Cheap: every source inside is created on first use
+        deviceSources = new DeviceSources(this);
+    }
+
+    /** See {@link DeviceSources#get}. */
+    DeviceSources getDeviceSources() {
+        return deviceSources;
+    }
+}
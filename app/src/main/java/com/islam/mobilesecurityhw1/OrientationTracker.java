@@ -0,0 +1,270 @@
+package com.islam.mobilesecurityhw1;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.islam.mobilesecurityhw1.core.OrientationEngine;
+import com.islam.mobilesecurityhw1.core.OrientationState;
+import com.islam.mobilesecurityhw1.core.SensorDutyCycle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Receives orientation sensor events on a dedicated HandlerThread and runs the orientation math
+ * there. Uses the fused rotation-vector sensor when the device has one, otherwise the
+ * accelerometer + magnetometer pair. The UI thread only reads the latest {@link OrientationState}.
+ *
+ * Sensors are registered on demand (see {@link #setDemand}): at the full rate until the reading
+ * has held for a while, then at a low rate, and not at all once nothing needs a reading. The last
+ * state is kept while they are off.
+ */
+public class OrientationTracker implements SensorEventListener {
+
+    private static final int SAMPLING_PERIOD_US = 200_000; // same as SENSOR_DELAY_NORMAL
+    // Let the sensor hub batch samples when it has a FIFO; we only need a fresh value at login time
+    private static final int MAX_REPORT_LATENCY_US = 200_000;
+    // Once the reading is stable: just enough to notice the phone being moved
+    private static final int LOW_SAMPLING_PERIOD_US = 1_000_000;
+    private static final int LOW_MAX_REPORT_LATENCY_US = 1_000_000;
+    private static final long STABLE_BEFORE_LOW_RATE_MS = 2_000;
+
+    private final SensorManager sensorManager;
+    private final Sensor rotationVector;
+    private final Sensor accelerometer;
+    private final Sensor magnetometer;
+
+    // Only touched on the sensor thread
+    private final OrientationEngine orientationEngine;
+
+    private volatile OrientationState state = OrientationState.NONE;
+    private volatile Runnable onChange;
+    // True once the engine has a full stable window of samples from the current registration
+    private volatile boolean settled = false;
+
+    private final SensorDutyCycle dutyCycle =
+            new SensorDutyCycle(TimeUnit.MILLISECONDS.toNanos(STABLE_BEFORE_LOW_RATE_MS));
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicReference<Runnable> whenSettled = new AtomicReference<>();
+
+    private HandlerThread sensorThread;
+    private volatile Handler sensorHandler;
+    // Only touched on the sensor thread, and by start() before that thread exists
+    private SensorDutyCycle.Mode registeredMode = SensorDutyCycle.Mode.OFF;
+
+    /**
+     * @param flatToleranceDeg  max |pitch| and |roll| to count as flat
+     * @param northToleranceDeg max degrees either side of magnetic north
+     */
+    public OrientationTracker(SensorManager sensorManager, float flatToleranceDeg, float northToleranceDeg) {
+        this.sensorManager = sensorManager;
+        this.orientationEngine = new OrientationEngine(flatToleranceDeg, northToleranceDeg);
+        this.rotationVector = sensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
+        this.accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+        this.magnetometer  = sensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
+    }
+
+    /**
+     * Latest flat / north flags, possibly a cached or restored reading: fine for display, not for
+     * judging an attempt (see {@link #getSettledState()}). Safe to call from any thread.
+     */
+    public OrientationState getState() {
+        return state;
+    }
+
+    /**
+     * The flags as confirmed by running, settled sensors, or null if they haven't settled since
+     * the last start / wake-up, in which case the current state may predate the caller's request.
+     * Safe to call from any thread.
+     */
+    public OrientationState getSettledState() {
+        // state is published before settled, so a true here sees the settled reading (or a newer one)
+        return settled ? state : null;
+    }
+
+    /**
+     * Runs {@code listener} on the sensor thread whenever the flat / north flags change. Pass null to remove it.
+     */
+    public void setOnChangeListener(Runnable listener) {
+        this.onChange = listener;
+    }
+
+    /**
+     * Publishes a state carried over from a previous run, for display, until the sensors have
+     * settled. {@link #getSettledState()} ignores it. Call before {@link #start()}.
+     */
+    public void restore(OrientationState restored) {
+        if (settled) return;
+        state = restored;
+    }
+
+    /**
+     * True if the current state comes from sensors that are running and have produced a full
+     * stable window of samples, rather than from a cached reading.
+     */
+    public boolean isSettled() {
+        return settled;
+    }
+
+    /**
+     * Sets or clears one of the {@link SensorDutyCycle} DEMAND_* reasons for running the sensors.
+     * Call on the UI thread; takes effect once {@link #start()} has been called.
+     */
+    public void setDemand(int reason, boolean needed) {
+        dutyCycle.setDemand(reason, needed, SystemClock.elapsedRealtimeNanos());
+        applyMode();
+    }
+
+    /**
+     * Runs {@code action} on the UI thread as soon as the state is settled, or after
+     * {@code timeoutMs} regardless; the action then finds {@link #getSettledState()} null.
+     * Only one action waits at a time; a newer one replaces it.
+     */
+    public void runWhenSettled(Runnable action, long timeoutMs) {
+        if (settled) {
+            action.run();
+            return;
+        }
+        whenSettled.set(action);
+        mainHandler.postDelayed(() -> {
+            if (whenSettled.compareAndSet(action, null)) action.run();
+        }, timeoutMs);
+    }
+
+    /**
+     * How long each sensor has been registered, e.g. "rotation vector: 1234 ms (full 800 ms, low 434 ms)".
+     */
+    public String describeUsage() {
+        long now = SystemClock.elapsedRealtimeNanos();
+        String times = TimeUnit.NANOSECONDS.toMillis(dutyCycle.getActiveNanos(now)) + " ms (full "
+                + TimeUnit.NANOSECONDS.toMillis(dutyCycle.getNanosIn(SensorDutyCycle.Mode.FULL, now)) + " ms, low "
+                + TimeUnit.NANOSECONDS.toMillis(dutyCycle.getNanosIn(SensorDutyCycle.Mode.LOW, now)) + " ms)";
+        if (rotationVector != null) {
+            return "rotation vector: " + times;
+        }
+        return "accelerometer: " + times + ", magnetometer: " + times;
+    }
+
+    public void start() {
+        if (sensorThread != null) return;
+
+        sensorThread = new HandlerThread("sensor-fusion", Process.THREAD_PRIORITY_DISPLAY);
+        sensorThread.start();
+        registeredMode = SensorDutyCycle.Mode.OFF;
+        sensorHandler = new Handler(sensorThread.getLooper());
+        applyMode();
+    }
+
+    public void stop() {
+        if (sensorThread == null) return;
+
+        dutyCycle.clear(SystemClock.elapsedRealtimeNanos());
+        Handler handler = sensorHandler;
+        sensorHandler = null;
+        sensorManager.unregisterListener(this);
+        // Again after anything already queued on the sensor thread, which may have just registered
+        handler.post(() -> sensorManager.unregisterListener(this));
+        sensorThread.quitSafely();
+        sensorThread = null;
+        settled = false;
+    }
+
+    /**
+     * Re-registers the sensors on the sensor thread if the duty cycle wants a different rate.
+     */
+    private void applyMode() {
+        Handler handler = sensorHandler;
+        if (handler == null) return;
+        handler.post(() -> {
+            // Posted before stop()
+            if (sensorHandler != handler) return;
+
+            SensorDutyCycle.Mode mode = dutyCycle.getMode();
+            if (mode == registeredMode) return;
+
+            sensorManager.unregisterListener(this);
+            if (registeredMode == SensorDutyCycle.Mode.OFF) {
+                // The cached state stays published, but how long it held is unknown after a gap
+                orientationEngine.reset();
+            }
+            registeredMode = mode;
+            if (mode == SensorDutyCycle.Mode.OFF) {
+                settled = false;
+                return;
+            }
+
+            boolean full = mode == SensorDutyCycle.Mode.FULL;
+            int periodUs = full ? SAMPLING_PERIOD_US : LOW_SAMPLING_PERIOD_US;
+            int latencyUs = full ? MAX_REPORT_LATENCY_US : LOW_MAX_REPORT_LATENCY_US;
+            if (rotationVector != null) {
+                register(rotationVector, periodUs, latencyUs, handler);
+            } else {
+                register(accelerometer, periodUs, latencyUs, handler);
+                register(magnetometer, periodUs, latencyUs, handler);
+            }
+        });
+    }
+
+    private void register(Sensor sensor, int periodUs, int maxLatencyUs, Handler handler) {
+        if (sensor == null) return;
+        int latencyUs = sensor.getFifoMaxEventCount() > 0 ? maxLatencyUs : 0;
+        sensorManager.registerListener(this, sensor, periodUs, latencyUs, handler);
+    }
+
+    // ===== Called on the sensor thread =====
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        TraceRecorder.onSensorEvent(event);
+
+        boolean updated;
+        switch (event.sensor.getType()) {
+            case Sensor.TYPE_ROTATION_VECTOR:
+                updated = orientationEngine.onRotationVector(event.timestamp, event.values);
+                break;
+            case Sensor.TYPE_ACCELEROMETER:
+                updated = orientationEngine.onAccelerometer(event.timestamp, event.values);
+                break;
+            case Sensor.TYPE_MAGNETIC_FIELD:
+                updated = orientationEngine.onMagnetometer(event.timestamp, event.values);
+                break;
+            default:
+                return;
+        }
+
+        // Until a full window is in, the cached state says more than a half-filled history
+        if (!updated || !orientationEngine.isSettled()) return;
+
+        OrientationState next = OrientationState.of(orientationEngine.isFlat(), orientationEngine.isPointingNorth());
+        boolean changed = next != state;
+        if (changed) {
+            state = next;
+            Runnable listener = onChange;
+            if (listener != null) listener.run();
+        }
+        if (!settled) {
+            settled = true;
+            Runnable action = whenSettled.getAndSet(null);
+            if (action != null) mainHandler.post(action);
+        }
+        if (dutyCycle.onReading(changed, SystemClock.elapsedRealtimeNanos()) != registeredMode) {
+            applyMode();
+        }
+    }
+
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        // An uncalibrated compass makes north meaningless; the engine won't report it until this improves
+        int type = sensor.getType();
+        if (type == Sensor.TYPE_ROTATION_VECTOR || type == Sensor.TYPE_MAGNETIC_FIELD) {
+            TraceRecorder.onHeadingAccuracy(accuracy);
+            orientationEngine.onHeadingAccuracy(accuracy);
+        }
+    }
+}
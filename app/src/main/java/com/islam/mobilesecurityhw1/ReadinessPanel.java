@@ -0,0 +1,86 @@
+package com.islam.mobilesecurityhw1;
+
+import android.content.Context;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.islam.mobilesecurityhw1.core.LoginPolicy;
+import com.islam.mobilesecurityhw1.core.Readiness;
+
+import java.util.List;
+
+/**
+ * One row per login condition (permission first, then the policy's checks in priority order),
+ * each showing ✔ or ✖. {@link #render} touches only rows whose status changed. Main thread only.
+ */
+public class ReadinessPanel {
+
+    private final Context context;
+    // Indexed like Readiness.CONDITIONS; null for conditions the policy doesn't check
+    private final TextView[] rows = new TextView[Readiness.CONDITIONS.size()];
+    private Readiness shown = null;
+    private int renderCount = 0;
+
+    public ReadinessPanel(LinearLayout container, LoginPolicy policy) {
+        this.context = container.getContext();
+        container.removeAllViews();
+        addRow(container, Readiness.PERMISSION);
+        for (String check : policy.getCheckOrder()) {
+            addRow(container, check);
+        }
+    }
+
+    public void render(Readiness readiness) {
+        int changed = shown == null ? -1 : readiness.changedMask(shown);
+        if (changed == 0) return;
+
+        List<String> conditions = Readiness.CONDITIONS;
+        for (int i = 0; i < conditions.size(); i++) {
+            if (rows[i] != null && (changed & (1 << i)) != 0) {
+                rows[i].setText(format(conditions.get(i), readiness.isMet(conditions.get(i))));
+            }
+        }
+        shown = readiness;
+        renderCount++;
+    }
+
+    /** Renders that changed at least one row. */
+    public int getRenderCount() {
+        return renderCount;
+    }
+
+    private void addRow(LinearLayout container, String condition) {
+        TextView row = new TextView(context);
+        row.setText(format(condition, false));
+        container.addView(row);
+        rows[Readiness.CONDITIONS.indexOf(condition)] = row;
+    }
+
+    private String format(String condition, boolean met) {
+        String mark = context.getString(met ? R.string.condition_met : R.string.condition_not_met);
+        return context.getString(labelFor(condition), mark);
+    }
+
+    private static int labelFor(String condition) {
+        switch (condition) {
+            case Readiness.PERMISSION:
+                return R.string.condition_permission;
+            case LoginPolicy.CHECK_BRIGHTNESS:
+                return R.string.condition_brightness;
+            case LoginPolicy.CHECK_PASSWORD:
+                return R.string.condition_password;
+            case LoginPolicy.CHECK_WIFI:
+                return R.string.condition_wifi;
+            case LoginPolicy.CHECK_CHARGING:
+                return R.string.condition_charging;
+            case LoginPolicy.CHECK_LOCATION:
+                return R.string.condition_location;
+            case LoginPolicy.CHECK_FLAT:
+                return R.string.condition_flat;
+            case LoginPolicy.CHECK_NORTH:
+                return R.string.condition_compass;
+            default:
+                throw new IllegalArgumentException("Unknown condition: " + condition);
+        }
+    }
+}
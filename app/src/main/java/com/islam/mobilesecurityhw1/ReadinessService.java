@@ -0,0 +1,129 @@
+package com.islam.mobilesecurityhw1;
+
+import android.Manifest;
+import android.app.Service;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.os.Binder;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.islam.mobilesecurityhw1.core.DeviceState;
+import com.islam.mobilesecurityhw1.core.LoginInputs;
+import com.islam.mobilesecurityhw1.core.LoginPolicy;
+import com.islam.mobilesecurityhw1.core.LoginSnapshot;
+import com.islam.mobilesecurityhw1.core.OrientationState;
+import com.islam.mobilesecurityhw1.core.SensorDutyCycle;
+import com.islam.mobilesecurityhw1.core.SharedReadiness;
+
+/**
+ * Lets other components of the app ask whether the device meets the login policy without
+ * launching {@link MainActivity}. Bind to it and read the {@link SharedReadiness} from
+ * {@link LocalBinder#getReadiness()}: reads are a volatile load, so any number of callers can poll
+ * it at any rate from any thread. Device conditions only; passwords are checked solely by the
+ * login screen, behind its attempt throttle and audit log.
+ *
+ * While at least one client is bound, the service holds the process-wide {@link DeviceSources}
+ * (shared with {@link MainActivity}, so nothing is registered twice) and republishes the
+ * snapshot whenever one of them changes.
+ * In-process only: the binder is a plain object, not an IPC interface.
+ */
+public class ReadinessService extends Service {
+
+    private static final String TAG = "ReadinessService";
+
+    // Catches what has no callback: a fix aging out, the permission being granted
+    private static final long REFRESH_INTERVAL_MS = 5_000;
+
+    public final class LocalBinder extends Binder {
+        public SharedReadiness getReadiness() {
+            return shared;
+        }
+    }
+
+    private final IBinder binder = new LocalBinder();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private SharedReadiness shared;
+    private DeviceSources sources;
+    private final Runnable publishOnMain = this::publish;
+    private final DeviceSources.Listener sourcesListener = new DeviceSources.Listener() {
+        @Override
+        public void onSourcesChanged() {
+            // May be called on the sensor thread, but the sources' getters are main-thread only
+            mainHandler.removeCallbacks(publishOnMain);
+            mainHandler.post(publishOnMain);
+        }
+
+        @Override
+        public void onLocationFailed(Exception e) {
+            Log.w(TAG, "Location failed", e);
+        }
+    };
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        LoginPolicy policy = LoginPolicyLoader.getPolicy(this);
+        shared = new SharedReadiness(policy);
+
+        sources = DeviceSources.get(this);
+        sources.addListener(sourcesListener);
+        sources.acquire();
+        sources.getOrientationTracker().setDemand(SensorDutyCycle.DEMAND_READINESS_CLIENTS, true);
+        refresh.run();
+    }
+
+    @Nullable
+    @Override
+    public IBinder onBind(Intent intent) {
+        return binder;
+    }
+
+    @Override
+    public void onDestroy() {
+        // Last client unbound
+        sources.removeListener(sourcesListener);
+        mainHandler.removeCallbacks(refresh);
+        mainHandler.removeCallbacks(publishOnMain);
+        sources.getOrientationTracker().setDemand(SensorDutyCycle.DEMAND_READINESS_CLIENTS, false);
+        sources.release();
+        super.onDestroy();
+    }
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            // No-op while a fix is cached or being acquired
+            sources.getLocationEngine().warmUp();
+            publish();
+            mainHandler.postDelayed(this, REFRESH_INTERVAL_MS);
+        }
+    };
+
+    /** Main thread only. */
+    private void publish() {
+        shared.publish(hasLocationPermission(), captureInputs());
+    }
+
+    private LoginInputs captureInputs() {
+        DeviceState device = sources.getDeviceStateMonitor().getState();
+        OrientationState orientation = sources.getOrientationTracker().getState();
+        Location location = sources.getLocationEngine().getAcceptedFix();
+        if (location == null) {
+            return LoginSnapshot.withoutLocation("", device, orientation);
+        }
+        return LoginSnapshot.withLocation("", device, orientation, location.getLatitude(), location.getLongitude());
+    }
+
+    private boolean hasLocationPermission() {
+        return ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+}
@@ -0,0 +1,90 @@
+package com.islam.mobilesecurityhw1;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.islam.mobilesecurityhw1.core.StartupTimings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times an activity's cold start (see {@link StartupTimings}) and holds back work that should not
+ * compete with the first frame: {@link #runAfterFirstFrame} queues it until the frame is drawn.
+ *
+ * Create at the start of onCreate, after setContentView. Main thread only.
+ */
+public class StartupProbe {
+
+    private static final String TAG = "StartupProbe";
+
+    // Logged as a warning when exceeded; dumpsys shows the full histogram
+    private static final long FIRST_FRAME_BUDGET_MS = 500;
+    private static final long LOGIN_READY_BUDGET_MS = 1000;
+
+    private final Activity activity;
+    private final StartupTimings timings;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Runnable> afterFirstFrame = new ArrayList<>();
+
+    public StartupProbe(Activity activity, long createNanos) {
+        this.activity = activity;
+        this.timings = new StartupTimings(createNanos);
+
+        View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            @Override
+            public void onDraw() {
+                // onDraw runs before the frame is drawn; the posted message runs right after it.
+                // Listeners can't be removed during dispatch, so that happens there too.
+                mainHandler.postAtFrontOfQueue(() -> {
+                    decorView.getViewTreeObserver().removeOnDrawListener(this);
+                    onFirstFrame();
+                });
+            }
+        });
+    }
+
+    /**
+     * Runs {@code task} now if the first frame is already drawn, otherwise right after it.
+     */
+    public void runAfterFirstFrame(Runnable task) {
+        if (timings.isFirstFrameDrawn()) {
+            task.run();
+        } else {
+            afterFirstFrame.add(task);
+        }
+    }
+
+    /**
+     * Everything a login tap needs is set up. Reports fully drawn to the platform the first time.
+     */
+    public void markLoginReady() {
+        if (!timings.markLoginReady(System.nanoTime())) return;
+
+        activity.reportFullyDrawn();
+        if (timings.isWithinBudget(FIRST_FRAME_BUDGET_MS, LOGIN_READY_BUDGET_MS)) {
+            Log.i(TAG, "Startup: " + timings);
+        } else {
+            Log.w(TAG, "Startup over budget (" + FIRST_FRAME_BUDGET_MS + " / " + LOGIN_READY_BUDGET_MS + " ms): " + timings);
+        }
+    }
+
+    public StartupTimings getTimings() {
+        return timings;
+    }
+
+    private void onFirstFrame() {
+        if (!timings.markFirstFrame(System.nanoTime())) return;
+
+        List<Runnable> tasks = new ArrayList<>(afterFirstFrame);
+        afterFirstFrame.clear();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+}
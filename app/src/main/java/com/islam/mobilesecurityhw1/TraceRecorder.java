@@ -0,0 +1,157 @@
+package com.islam.mobilesecurityhw1;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.location.Location;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.islam.mobilesecurityhw1.core.TraceWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Records a session trace (see {@link TraceWriter}) to files/traces/ for offline replay:
+ * <pre>
+ * adb shell am start -n com.islam.mobilesecurityhw1/.MainActivity --ez record_trace true
+ * adb exec-out run-as com.islam.mobilesecurityhw1 cat files/traces/&lt;name&gt;.mstrace &gt; session.mstrace
+ * </pre>
+ * Debug builds only. While not recording, every hook is a single volatile read.
+ * All timestamps use the elapsedRealtimeNanos clock, like sensor events and location fixes.
+ */
+public final class TraceRecorder {
+
+    private static final String TAG = "TraceRecorder";
+
+    public static final String EXTRA_RECORD_TRACE = "record_trace";
+
+    private static final String TRACE_DIR = "traces";
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private static volatile TraceWriter writer;
+
+    private TraceRecorder() {
+    }
+
+    public static synchronized void start(Context context) {
+        if (writer != null) return;
+
+        File dir = new File(context.getFilesDir(), TRACE_DIR);
+        File file = new File(dir, System.currentTimeMillis() + ".mstrace");
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create " + dir);
+            }
+            writer = new TraceWriter(new BufferedOutputStream(new FileOutputStream(file), BUFFER_BYTES));
+            Log.i(TAG, "Recording to " + file);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot start recording", e);
+        }
+    }
+
+    public static synchronized void stop() {
+        TraceWriter current = writer;
+        if (current == null) return;
+
+        // New events see null from here on. close() takes the writer's lock, so a record already
+        // being written by a sensor / location / UI thread completes first; later ones are dropped.
+        writer = null;
+        try {
+            current.close();
+            Log.i(TAG, "Recorded " + current.getRecordCount() + " records");
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot finish recording", e);
+        }
+    }
+
+    // ===== Hooks =====
+
+    public static void onSensorEvent(SensorEvent event) {
+        TraceWriter w = writer;
+        if (w == null) return;
+        try {
+            if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
+                w.accelerometer(event.timestamp, event.values[0], event.values[1], event.values[2]);
+            } else if (event.sensor.getType() == Sensor.TYPE_MAGNETIC_FIELD) {
+                w.magnetometer(event.timestamp, event.values[0], event.values[1], event.values[2]);
+            } else if (event.sensor.getType() == Sensor.TYPE_ROTATION_VECTOR) {
+                float scalar = event.values.length >= 4 ? event.values[3] : Float.NaN;
+                w.rotationVector(event.timestamp, event.values[0], event.values[1], event.values[2], scalar);
+            }
+        } catch (IOException e) {
+            onWriteFailed(w, e);
+        }
+    }
+
+    public static void onHeadingAccuracy(int accuracy) {
+        TraceWriter w = writer;
+        if (w == null) return;
+        try {
+            w.headingAccuracy(SystemClock.elapsedRealtimeNanos(), accuracy);
+        } catch (IOException e) {
+            onWriteFailed(w, e);
+        }
+    }
+
+    public static void onLocation(Location location) {
+        TraceWriter w = writer;
+        if (w == null) return;
+        try {
+            w.location(location.getElapsedRealtimeNanos(), location.getLatitude(), location.getLongitude(),
+                    location.hasAccuracy() ? location.getAccuracy() : Float.NaN);
+        } catch (IOException e) {
+            onWriteFailed(w, e);
+        }
+    }
+
+    public static void onBattery(int level, boolean charging) {
+        TraceWriter w = writer;
+        if (w == null) return;
+        try {
+            w.battery(SystemClock.elapsedRealtimeNanos(), level, charging);
+        } catch (IOException e) {
+            onWriteFailed(w, e);
+        }
+    }
+
+    public static void onWifi(boolean connected) {
+        TraceWriter w = writer;
+        if (w == null) return;
+        try {
+            w.wifi(SystemClock.elapsedRealtimeNanos(), connected);
+        } catch (IOException e) {
+            onWriteFailed(w, e);
+        }
+    }
+
+    public static void onBrightness(int brightness) {
+        TraceWriter w = writer;
+        if (w == null) return;
+        try {
+            w.brightness(SystemClock.elapsedRealtimeNanos(), brightness);
+        } catch (IOException e) {
+            onWriteFailed(w, e);
+        }
+    }
+
+    public static void onLoginAttempt() {
+        TraceWriter w = writer;
+        if (w == null) return;
+        try {
+            w.loginAttempt(SystemClock.elapsedRealtimeNanos());
+        } catch (IOException e) {
+            onWriteFailed(w, e);
+        }
+    }
+
+    private static synchronized void onWriteFailed(TraceWriter failed, IOException e) {
+        // Only stop the recording that failed, not one started since
+        if (writer != failed) return;
+        Log.e(TAG, "Trace write failed, recording stopped", e);
+        stop();
+    }
+}
@@ -0,0 +1,81 @@
+package com.islam.mobilesecurityhw1;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.islam.mobilesecurityhw1.core.WarmStartFile;
+import com.islam.mobilesecurityhw1.core.WarmStartSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide {@link WarmStartFile} in files/warm_start.bin. If the file can't be mapped the
+ * app simply starts cold, as it did before snapshots existed.
+ *
+ * The file is opened, mapped and read on a background thread, never on the main thread during
+ * a cold start. Loads and saves run in submission order on that thread.
+ */
+public final class WarmStart {
+
+    private static final String TAG = "WarmStart";
+    private static final String PATH = "warm_start.bin";
+
+    private static final Executor io = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "warm-start-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only touched on the io thread
+    private static WarmStartFile instance;
+    private static boolean failed = false;
+
+    private WarmStart() {
+    }
+
+    /**
+     * Reads the previous run's snapshot in the background and hands it, or null, to
+     * {@code onLoaded} on the main thread.
+     */
+    public static void load(Context context, Consumer<WarmStartSnapshot> onLoaded) {
+        Context app = context.getApplicationContext();
+        Executor main = ContextCompat.getMainExecutor(app);
+        io.execute(() -> {
+            WarmStartFile file = get(app);
+            WarmStartSnapshot snapshot = file == null ? null : file.read();
+            main.execute(() -> onLoaded.accept(snapshot));
+        });
+    }
+
+    /**
+     * Writes {@code snapshot} in the background, after any load or save already submitted.
+     */
+    public static void save(Context context, WarmStartSnapshot snapshot) {
+        Context app = context.getApplicationContext();
+        io.execute(() -> {
+            WarmStartFile file = get(app);
+            if (file != null) file.write(snapshot);
+        });
+    }
+
+    @Nullable
+    private static WarmStartFile get(Context context) {
+        if (instance == null && !failed) {
+            // One small open + mmap on the first call; after that every access is a memory access
+            try {
+                instance = WarmStartFile.open(new File(context.getFilesDir(), PATH));
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot map warm-start file; starting cold", e);
+                failed = true;
+            }
+        }
+        return instance;
+    }
+}
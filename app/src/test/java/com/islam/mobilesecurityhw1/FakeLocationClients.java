@@ -0,0 +1,72 @@
+package com.islam.mobilesecurityhw1;
+
+import android.content.Context;
+import android.location.Location;
+import android.os.SystemClock;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.SettingsClient;
+import com.google.android.gms.tasks.Tasks;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * {@link LocationClients.Factory} for local tests: location settings are always satisfied and
+ * every location request succeeds at once with a fresh, accurate fix at the given coordinates.
+ * Any other Play Services call fails the test.
+ */
+class FakeLocationClients implements LocationClients.Factory {
+
+    private final double latitude;
+    private final double longitude;
+
+    FakeLocationClients(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    @Override
+    public FusedLocationProviderClient fused(Context context) {
+        return fake(FusedLocationProviderClient.class);
+    }
+
+    @Override
+    public SettingsClient settings(Context context) {
+        return fake(SettingsClient.class);
+    }
+
+    private Location freshFix() {
+        Location fix = new Location("fused");
+        fix.setLatitude(latitude);
+        fix.setLongitude(longitude);
+        fix.setAccuracy(10f);
+        fix.setTime(System.currentTimeMillis());
+        fix.setElapsedRealtimeNanos(SystemClock.elapsedRealtimeNanos());
+        return fix;
+    }
+
+    /**
+     * Both clients are interfaces; a proxy saves stubbing the dozens of methods the app never calls.
+     */
+    private <T> T fake(Class<T> type) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            switch (method.getName()) {
+                case "getLastLocation":
+                case "getCurrentLocation":
+                    return Tasks.forResult(freshFix());
+                case "checkLocationSettings":
+                    // The app only looks at success vs. failure
+                    return Tasks.forResult(null);
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "equals":
+                    return self == args[0];
+                case "toString":
+                    return "Fake" + type.getSimpleName();
+                default:
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+        });
+        return type.cast(proxy);
+    }
+}
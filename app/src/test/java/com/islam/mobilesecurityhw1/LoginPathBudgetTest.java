@@ -0,0 +1,262 @@
+package com.islam.mobilesecurityhw1;
+
+import android.Manifest;
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorManager;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+import android.os.BatteryManager;
+import android.os.Looper;
+import android.provider.Settings;
+import android.widget.EditText;
+
+import com.islam.mobilesecurityhw1.core.CheckMetrics;
+import com.islam.mobilesecurityhw1.core.DeviceState;
+import com.islam.mobilesecurityhw1.core.LatencyHistogram;
+import com.islam.mobilesecurityhw1.core.LoginCheck;
+import com.islam.mobilesecurityhw1.core.LoginPolicy;
+import com.islam.mobilesecurityhw1.core.LoginSnapshot;
+import com.islam.mobilesecurityhw1.core.OrientationState;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowNetworkCapabilities;
+import org.robolectric.shadows.ShadowSensor;
+import org.robolectric.shadows.ShadowSensorManager;
+import org.robolectric.shadows.ShadowToast;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Performance budgets for the login path, run on the JVM against the real {@link MainActivity}
+ * with shadowed sensors, battery, connectivity and settings and a fake location client.
+ * Exceeding a budget fails the test, and with it the build.
+ *
+ * Robolectric is slower than a device, so the latency budgets catch regressions by orders of
+ * magnitude (an accidental IPC, a blocking wait) rather than small drifts. The allocation
+ * budgets are exact.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class LoginPathBudgetTest {
+
+    // ===== Budgets =====
+    /** Median time of any single check while the whole plan passes. */
+    private static final long CHECK_LATENCY_BUDGET_MS = 5;
+    /** Tap to result on screen, with the sensors settled and a location fix cached. */
+    private static final long TAP_TO_DECISION_BUDGET_MS = 250;
+    /** Heap bytes one evaluation of a built check may allocate. */
+    private static final long CHECK_ALLOCATION_BUDGET_BYTES = 0;
+    /**
+     * Heap bytes one onSensorChanged may allocate. The engine itself is held to zero by
+     * OrientationEngineTest; this leaves room for Robolectric's shadow dispatch around it.
+     */
+    private static final long SENSOR_EVENT_ALLOCATION_BUDGET_BYTES = 64;
+    // ===================================
+
+    // Inside zone.0 of the shipped policy
+    private static final double LATITUDE = 32.85254314059482;
+    private static final double LONGITUDE = 35.33675279027549;
+    private static final int BATTERY_PERCENT = 87;
+    private static final String PASSWORD = "10s20w30q15"; // 8 + 7
+
+    private static final long WAIT_TIMEOUT_MS = 10_000;
+    private static final long MS = 1_000_000L;
+
+    private Application app;
+    private SensorManager sensorManager;
+    private ActivityController<MainActivity> controller;
+
+    @Before
+    public void setUp() {
+        app = RuntimeEnvironment.getApplication();
+        CheckMetrics.install(CheckMetrics.enabled(null));
+        LocationClients.install(new FakeLocationClients(LATITUDE, LONGITUDE));
+
+        shadowOf(app).grantPermissions(Manifest.permission.ACCESS_FINE_LOCATION, Manifest.permission.ACCESS_COARSE_LOCATION);
+
+        // Sticky, so the monitor reads it on registration
+        Intent battery = new Intent(Intent.ACTION_BATTERY_CHANGED)
+                .putExtra(BatteryManager.EXTRA_LEVEL, BATTERY_PERCENT)
+                .putExtra(BatteryManager.EXTRA_SCALE, 100)
+                .putExtra(BatteryManager.EXTRA_STATUS, BatteryManager.BATTERY_STATUS_CHARGING);
+        app.sendStickyBroadcast(battery);
+
+        ConnectivityManager connectivity = (ConnectivityManager) app.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkCapabilities wifi = ShadowNetworkCapabilities.newInstance();
+        shadowOf(wifi).addTransportType(NetworkCapabilities.TRANSPORT_WIFI);
+        shadowOf(connectivity).setNetworkCapabilities(connectivity.getActiveNetwork(), wifi);
+
+        Settings.System.putInt(app.getContentResolver(), Settings.System.SCREEN_BRIGHTNESS, 255);
+
+        sensorManager = (SensorManager) app.getSystemService(Context.SENSOR_SERVICE);
+        shadowOf(sensorManager).addSensor(ShadowSensor.newInstance(Sensor.TYPE_ROTATION_VECTOR));
+    }
+
+    @After
+    public void tearDown() {
+        if (controller != null) {
+            controller.pause().stop().destroy();
+        }
+        CheckMetrics.install(CheckMetrics.DISABLED);
+        LocationClients.install(LocationClients.PLAY_SERVICES);
+    }
+
+    @Test
+    public void loginPathStaysWithinLatencyBudgets() {
+        controller = Robolectric.buildActivity(MainActivity.class).setup();
+        MainActivity activity = controller.get();
+        EditText passwordField = activity.findViewById(R.id.password_field);
+        // Settings check and location fix: the fake clients complete on the main looper
+        shadowOf(Looper.getMainLooper()).idle();
+
+        // Focus asks for a reading; the sensors register on their own thread
+        passwordField.requestFocus();
+        ShadowSensorManager sensors = shadowOf(sensorManager);
+        idleUntil(() -> !sensors.getListeners().isEmpty(), "sensor registration");
+        settleFlatFacingNorth(sensors);
+        passwordField.setText(PASSWORD);
+
+        // The first taps pay for class loading; the bucket allows three back to back
+        long tapToDecisionNanos = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < 3; attempt++) {
+            ShadowToast.reset();
+            long start = System.nanoTime();
+            activity.findViewById(R.id.login_button).performClick();
+            idleUntil(() -> ShadowToast.getTextOfLatestToast() != null, "login result");
+            tapToDecisionNanos = Math.min(tapToDecisionNanos, System.nanoTime() - start);
+            assertEquals("Login Successful!", ShadowToast.getTextOfLatestToast());
+        }
+        assertWithinBudget("tap to decision", tapToDecisionNanos, TAP_TO_DECISION_BUDGET_MS);
+
+        // Every check ran, since all of them passed
+        CheckMetrics metrics = CheckMetrics.get();
+        for (String check : LoginPolicy.ALL_CHECKS) {
+            LatencyHistogram latency = metrics.getLatency(check);
+            assertNotNull("no timings for " + check, latency);
+            assertWithinBudget("check " + check, latency.getPercentileNanos(50), CHECK_LATENCY_BUDGET_MS);
+        }
+    }
+
+    @Test
+    public void checksStayWithinAllocationBudget() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        LoginPolicy policy = LoginPolicyLoader.getPolicy(app);
+        DeviceState device = DeviceState.INITIAL
+                .withBattery(BATTERY_PERCENT, true)
+                .withWifiConnected(true)
+                .withBrightness(255);
+        LoginSnapshot inputs = LoginSnapshot.withLocation(PASSWORD, device, OrientationState.of(true, true),
+                LATITUDE, LONGITUDE);
+
+        final int runs = 10_000;
+        long threadId = Thread.currentThread().getId();
+        for (LoginCheck check : policy.buildChecks(inputs)) {
+            evaluate(check, runs); // warm up
+
+            long before = threads.getThreadAllocatedBytes(threadId);
+            evaluate(check, runs);
+            long perRun = (threads.getThreadAllocatedBytes(threadId) - before) / runs;
+            assertTrue(check.getName() + " allocated " + perRun + " bytes per evaluation, budget "
+                    + CHECK_ALLOCATION_BUDGET_BYTES, perRun <= CHECK_ALLOCATION_BUDGET_BYTES);
+        }
+    }
+
+    @Test
+    public void sensorEventsStayWithinAllocationBudget() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        OrientationTracker tracker = new OrientationTracker(sensorManager, 10f, 15f);
+        SensorEvent event = rotationVector(shadowOf(sensorManager), 0);
+
+        final int events = 10_000;
+        feed(tracker, event, 0, events); // warm up, and past the stable window
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        feed(tracker, event, events, events);
+        long perEvent = (threads.getThreadAllocatedBytes(threadId) - before) / events;
+        assertTrue("onSensorChanged allocated " + perEvent + " bytes per event, budget "
+                + SENSOR_EVENT_ALLOCATION_BUDGET_BYTES, perEvent <= SENSOR_EVENT_ALLOCATION_BUDGET_BYTES);
+        assertEquals(OrientationState.of(true, true), tracker.getState());
+    }
+
+    // ===== Helpers =====
+
+    /**
+     * Identity rotation: lying flat, top edge facing north. Spans the engine's stable window.
+     */
+    private static void settleFlatFacingNorth(ShadowSensorManager sensors) {
+        for (long t = 0; t <= 500 * MS; t += 100 * MS) {
+            sensors.sendSensorEventToListeners(rotationVector(sensors, t));
+        }
+    }
+
+    private static SensorEvent rotationVector(ShadowSensorManager sensors, long timestampNanos) {
+        SensorEvent event = sensors.createSensorEvent(4, Sensor.TYPE_ROTATION_VECTOR);
+        event.values[3] = 1f;
+        event.timestamp = timestampNanos;
+        return event;
+    }
+
+    private static void feed(OrientationTracker tracker, SensorEvent event, int first, int count) {
+        for (int i = first; i < first + count; i++) {
+            event.timestamp = i * 5 * MS;
+            tracker.onSensorChanged(event);
+        }
+    }
+
+    private static void evaluate(LoginCheck check, int runs) {
+        try {
+            for (int i = 0; i < runs; i++) {
+                assertTrue(check.getName(), check.passes());
+            }
+        } catch (Exception e) {
+            throw new AssertionError(check.getName(), e);
+        }
+    }
+
+    /**
+     * Runs the main looper until {@code condition} holds; background threads (sensors, login
+     * executor, audit writer) run for real in between.
+     */
+    private static void idleUntil(BooleanSupplier condition, String what) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAIT_TIMEOUT_MS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0) {
+                fail("Timed out waiting for " + what);
+            }
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.yield();
+        }
+    }
+
+    private static void assertWithinBudget(String what, long nanos, long budgetMs) {
+        assertTrue(what + " took " + TimeUnit.NANOSECONDS.toMicros(nanos) + " us, budget " + budgetMs + " ms",
+                nanos <= TimeUnit.MILLISECONDS.toNanos(budgetMs));
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
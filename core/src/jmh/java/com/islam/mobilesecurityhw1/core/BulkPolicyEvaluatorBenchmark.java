@@ -0,0 +1,62 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One million synthetic snapshots around the Tel Aviv zone, on one thread and on every core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkPolicyEvaluatorBenchmark {
+
+    private SnapshotColumns rows;
+    private ForkJoinPool singleThread;
+    private BulkPolicyEvaluator sequential;
+    private BulkPolicyEvaluator parallel;
+
+    @Setup
+    public void setUp() {
+        LoginPolicy policy = new LoginPolicy("10s20w30q", 128,
+                new ZoneIndex.Builder().add(32.08684812926745, 34.7895403545493, 5000).build(), "Tel Aviv");
+
+        Random random = new Random(1);
+        SnapshotColumns.Builder builder = new SnapshotColumns.Builder();
+        for (int i = 0; i < 1_000_000; i++) {
+            builder.add(random.nextInt(101), random.nextBoolean(), random.nextBoolean(), random.nextInt(256),
+                    32.08 + (random.nextDouble() - 0.5) * 0.2, 34.79 + (random.nextDouble() - 0.5) * 0.2,
+                    (random.nextFloat() - 0.5f) * 40f, (random.nextFloat() - 0.5f) * 40f, random.nextFloat() * 360f);
+        }
+        rows = builder.build();
+
+        singleThread = new ForkJoinPool(1);
+        sequential = new BulkPolicyEvaluator(policy, singleThread);
+        parallel = new BulkPolicyEvaluator(policy);
+    }
+
+    @TearDown
+    public void tearDown() {
+        singleThread.shutdown();
+    }
+
+    @Benchmark
+    public long millionRowsOneThread() {
+        return sequential.evaluate(rows).getAllPassedCount();
+    }
+
+    @Benchmark
+    public long millionRowsCommonPool() {
+        return parallel.evaluate(rows).getAllPassedCount();
+    }
+}
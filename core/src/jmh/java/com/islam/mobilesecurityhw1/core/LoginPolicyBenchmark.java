@@ -0,0 +1,53 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full policy evaluation for a passing attempt (every check runs) and for a typical
+ * rejected attempt (wrong password).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoginPolicyBenchmark {
+
+    private LoginPolicy policy;
+    private LoginInputs passing;
+    private LoginInputs wrongPassword;
+
+    @Setup
+    public void setUp() {
+        policy = new LoginPolicy("10s20w30q", 128,
+                new ZoneIndex.Builder()
+                        .add(32.85254314059482, 35.33675279027549, 5000)
+                        .add(32.08684812926745, 34.7895403545493, 5000)
+                        .build(),
+                "Arrabah or Tel Aviv");
+
+        DeviceState device = DeviceState.INITIAL
+                .withBattery(87, true)
+                .withWifiConnected(true)
+                .withBrightness(200);
+        OrientationState orientation = OrientationState.of(true, true);
+        passing = LoginSnapshot.withLocation("10s20w30q15", device, orientation, 32.09, 34.79);
+        wrongPassword = LoginSnapshot.withLocation("10s20w30q16", device, orientation, 32.09, 34.79);
+    }
+
+    @Benchmark
+    public LoginCheck allPass() {
+        return policy.firstFailure(passing);
+    }
+
+    @Benchmark
+    public LoginCheck rejected() {
+        return policy.firstFailure(wrongPassword);
+    }
+}
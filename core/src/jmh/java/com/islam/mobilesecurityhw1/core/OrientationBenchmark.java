@@ -0,0 +1,34 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one accelerometer + magnetometer event pair through {@link OrientationEngine}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrientationBenchmark {
+
+    private final OrientationEngine engine = new OrientationEngine();
+    private final float[] accel = {0.1f, 0.2f, 9.81f};
+    private final float[] mag = {0f, 22f, -40f};
+    private int tick;
+
+    @Benchmark
+    public boolean eventPair() {
+        // Jitter the samples a little so nothing can be constant-folded
+        long nanos = tick * 5_000_000L; // 200 Hz
+        accel[0] = (tick++ & 7) * 0.01f;
+        engine.onAccelerometer(nanos, accel);
+        engine.onMagnetometer(nanos, mag);
+        return engine.isFlat() & engine.isPointingNorth();
+    }
+}
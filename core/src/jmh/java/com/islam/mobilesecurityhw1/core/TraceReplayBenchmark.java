@@ -0,0 +1,57 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replay of one recorded minute: 5 Hz accelerometer + magnetometer, a login tap every 6 s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TraceReplayBenchmark {
+
+    private LoginPolicy loginPolicy;
+    private LocationPolicy locationPolicy;
+    private byte[] trace;
+
+    @Setup
+    public void setUp() throws IOException {
+        loginPolicy = new LoginPolicy("10s20w30q", 128,
+                new ZoneIndex.Builder().add(32.08684812926745, 34.7895403545493, 5000).build(), "Tel Aviv");
+        locationPolicy = new LocationPolicy(2 * 60_000, 500f, 10_000);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TraceWriter writer = new TraceWriter(bytes)) {
+            writer.battery(0, 87, true);
+            writer.wifi(0, true);
+            writer.brightness(0, 200);
+            writer.location(0, 32.09, 34.79, 20f);
+            for (int i = 1; i <= 300; i++) {
+                long t = i * 200_000_000L;
+                writer.accelerometer(t, 0f, 0f, 9.81f);
+                writer.magnetometer(t, 0f, 22f, -40f);
+                if (i % 30 == 0) writer.loginAttempt(t);
+            }
+        }
+        trace = bytes.toByteArray();
+    }
+
+    @Benchmark
+    public int replayMinute() throws IOException {
+        TraceReplayer replayer = new TraceReplayer(loginPolicy, locationPolicy,
+                state -> "10s20w30q" + LoginPolicy.sumOfDigits(state.getBatteryLevel()), null);
+        replayer.replay(new ByteArrayInputStream(trace));
+        return replayer.getSuccessCount();
+    }
+}
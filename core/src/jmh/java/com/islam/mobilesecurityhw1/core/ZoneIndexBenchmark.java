@@ -0,0 +1,61 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ZoneIndex} lookup cost as the zone count grows. Zones are 100 m - 1 km circles
+ * scattered over Israel; queries are uniform over the same area.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ZoneIndexBenchmark {
+
+    private static final int QUERIES = 1 << 16;
+
+    @Param({"10", "1000", "100000"})
+    public int zones;
+
+    private ZoneIndex index;
+    private final double[] queries = new double[2 * QUERIES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        ZoneIndex.Builder builder = new ZoneIndex.Builder();
+        for (int i = 0; i < zones; i++) {
+            builder.add(29 + random.nextDouble() * 5, 34 + random.nextDouble() * 2, 100 + random.nextDouble() * 900);
+        }
+        index = builder.build();
+
+        for (int i = 0; i < queries.length; i += 2) {
+            queries[i] = 29 + random.nextDouble() * 5;
+            queries[i + 1] = 34 + random.nextDouble() * 2;
+        }
+    }
+
+    @Benchmark
+    public int lookup() {
+        int i = next;
+        next = (i + 2) & (queries.length - 1);
+        return index.findZone(queries[i], queries[i + 1]);
+    }
+
+    @Benchmark
+    public double haversine() {
+        int i = next;
+        next = (i + 2) & (queries.length - 1);
+        return ZoneIndex.haversineMeters(queries[i], queries[i + 1], 32.08684812926745, 34.7895403545493);
+    }
+}
@@ -0,0 +1,95 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Decides what a login tap does: start an evaluation, join the one already running, or be
+ * throttled. Taps are rate-limited by a {@link TokenBucket}; after several failed attempts in a
+ * row the bucket is blocked for an exponentially growing backoff, reset by a success.
+ *
+ * Not thread-safe: call from the main thread. Times are {@link System#nanoTime()} values.
+ */
+public final class AttemptCoordinator {
+
+    public enum Decision {
+        /** Run a new evaluation, then call {@link #onFinished}. */
+        START,
+        /** An evaluation is running; this tap gets its result. */
+        JOINED,
+        /** Too many attempts; see {@link #getRetryDelayMs}. */
+        THROTTLED
+    }
+
+    // Caps the backoff shift so it can't overflow
+    private static final int MAX_BACKOFF_DOUBLINGS = 16;
+
+    private final TokenBucket bucket;
+    private final int failuresBeforeBackoff;
+    private final long baseBackoffNanos;
+    private final long maxBackoffNanos;
+
+    private boolean inFlight = false;
+    private int joinedTaps = 0;
+    private int consecutiveFailures = 0;
+
+    /**
+     * @param bucket                limits how often evaluations start
+     * @param failuresBeforeBackoff consecutive failures that are let through before backing off
+     * @param baseBackoffNanos      first backoff; doubles with every further failure
+     * @param maxBackoffNanos       longest backoff
+     */
+    public AttemptCoordinator(TokenBucket bucket, int failuresBeforeBackoff, long baseBackoffNanos, long maxBackoffNanos) {
+        this.bucket = bucket;
+        this.failuresBeforeBackoff = failuresBeforeBackoff;
+        this.baseBackoffNanos = baseBackoffNanos;
+        this.maxBackoffNanos = maxBackoffNanos;
+    }
+
+    public Decision onTap(long nowNanos) {
+        if (inFlight) {
+            joinedTaps++;
+            return Decision.JOINED;
+        }
+        if (!bucket.tryAcquire(nowNanos)) {
+            return Decision.THROTTLED;
+        }
+        inFlight = true;
+        return Decision.START;
+    }
+
+    /**
+     * The evaluation started by the last {@link Decision#START} is done.
+     *
+     * @return how many taps were joined onto it
+     */
+    public int onFinished(long nowNanos, boolean success) {
+        inFlight = false;
+        int joined = joinedTaps;
+        joinedTaps = 0;
+
+        if (success) {
+            consecutiveFailures = 0;
+        } else if (++consecutiveFailures >= failuresBeforeBackoff) {
+            bucket.blockUntil(nowNanos + getBackoffNanos());
+        }
+        return joined;
+    }
+
+    public boolean isInFlight() {
+        return inFlight;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /** Backoff applied after the current run of failures, 0 if below the threshold. */
+    public long getBackoffNanos() {
+        if (consecutiveFailures < failuresBeforeBackoff) return 0;
+        int doublings = Math.min(consecutiveFailures - failuresBeforeBackoff, MAX_BACKOFF_DOUBLINGS);
+        return Math.min(baseBackoffNanos << doublings, maxBackoffNanos);
+    }
+
+    /** How long until a tap can start an evaluation again, rounded up to whole ms. */
+    public long getRetryDelayMs(long nowNanos) {
+        return (bucket.nanosUntilAvailable(nowNanos) + 999_999) / 1_000_000;
+    }
+}
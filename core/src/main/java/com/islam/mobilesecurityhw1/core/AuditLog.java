@@ -0,0 +1,233 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only log of login attempts with group commit.
+ *
+ * {@link #append} only offers the record to a bounded queue, so it never blocks and never touches
+ * the disk; when the queue is full the record is dropped and counted. A background thread drains
+ * the queue in batches and writes each batch with one write and one sync. While the queue is empty
+ * the writer is parked, so an idle log costs nothing.
+ *
+ * File layout: the magic "MSAL" and a version byte, then length-prefixed records. When a file
+ * would grow past its size limit it is rotated: log -> log.1 -> log.2 ..., oldest deleted.
+ * Read it back with {@link AuditLogReader}.
+ */
+public final class AuditLog implements Closeable {
+
+    static final int MAGIC = 0x4D53414C; // "MSAL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 5;
+
+    private static final int MAX_BATCH = 64;
+
+    private final File file;
+    private final long maxFileBytes;
+    private final int maxBackups;
+    private final ArrayBlockingQueue<AuditRecord> queue;
+    private final Thread writerThread;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    private volatile boolean closed = false;
+
+    // Writer thread only
+    private final ByteArrayOutputStream batchBytes = new ByteArrayOutputStream();
+    private final DataOutputStream batchOut = new DataOutputStream(batchBytes);
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(recordBytes);
+    private FileOutputStream out;
+    private long fileBytes;
+
+    /**
+     * Starts the writer thread. The file is opened lazily, on that thread.
+     *
+     * @param file          the current log file; rotated copies go next to it
+     * @param queueCapacity records that may wait for the writer before new ones are dropped
+     * @param maxFileBytes  size at which the current file is rotated
+     * @param maxBackups    rotated files to keep
+     */
+    public AuditLog(File file, int queueCapacity, long maxFileBytes, int maxBackups) {
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.maxBackups = maxBackups;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = new Thread(this::runWriter, "audit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a record for writing. Never blocks.
+     *
+     * @return false if the record was dropped (queue full or log closed)
+     */
+    public boolean append(AuditRecord record) {
+        if (closed || !queue.offer(record)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /** Rotated file {@code index} (1 = newest). */
+    static File backupFile(File file, int index) {
+        return new File(file.getPath() + "." + index);
+    }
+
+    public int getMaxBackups() {
+        return maxBackups;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /** Number of group commits (write + sync) so far. */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getWriteErrorCount() {
+        return writeErrors.get();
+    }
+
+    /**
+     * Writes out everything queued so far, then stops the writer. Blocks until it is done.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // Wakes the writer if it is parked on an empty queue; it then drains what is left
+        writerThread.interrupt();
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ===== Writer thread =====
+
+    private void runWriter() {
+        List<AuditRecord> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed) {
+            AuditRecord first;
+            try {
+                first = queue.take();
+            } catch (InterruptedException e) {
+                // close(), or a stray interrupt: the loop condition decides
+                continue;
+            }
+
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            commit(batch);
+            batch.clear();
+        }
+
+        // Anything that slipped in while closing
+        queue.drainTo(batch);
+        if (!batch.isEmpty()) commit(batch);
+        closeFile();
+    }
+
+    private void commit(List<AuditRecord> batch) {
+        try {
+            batchBytes.reset();
+            for (AuditRecord record : batch) {
+                recordBytes.reset();
+                record.writeTo(recordOut);
+                batchOut.writeInt(recordBytes.size());
+                recordBytes.writeTo(batchOut);
+            }
+
+            if (out != null && fileBytes > HEADER_BYTES && fileBytes + batchBytes.size() > maxFileBytes) {
+                rotate();
+            }
+            openIfNeeded();
+
+            batchBytes.writeTo(out);
+            out.getFD().sync();
+            fileBytes += batchBytes.size();
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (IOException e) {
+            // Lose this batch, reopen for the next one
+            writeErrors.incrementAndGet();
+            dropped.addAndGet(batch.size());
+            closeFile();
+        }
+    }
+
+    private void openIfNeeded() throws IOException {
+        if (out != null) return;
+
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        out = new FileOutputStream(file, true);
+        fileBytes = file.length();
+        if (fileBytes == 0) {
+            DataOutputStream header = new DataOutputStream(out);
+            header.writeInt(MAGIC);
+            header.writeByte(VERSION);
+            fileBytes = HEADER_BYTES;
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeFile();
+        if (maxBackups == 0) {
+            if (!file.delete()) throw new IOException("Cannot delete " + file);
+            return;
+        }
+
+        File oldest = backupFile(file, maxBackups);
+        if (oldest.exists() && !oldest.delete()) throw new IOException("Cannot delete " + oldest);
+        for (int i = maxBackups - 1; i >= 1; i--) {
+            File backup = backupFile(file, i);
+            if (backup.exists() && !backup.renameTo(backupFile(file, i + 1))) {
+                throw new IOException("Cannot rotate " + backup);
+            }
+        }
+        if (!file.renameTo(backupFile(file, 1))) throw new IOException("Cannot rotate " + file);
+    }
+
+    private void closeFile() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // Every batch was synced already
+        }
+        out = null;
+    }
+}
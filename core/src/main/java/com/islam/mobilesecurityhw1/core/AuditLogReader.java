@@ -0,0 +1,75 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streams the records of an {@link AuditLog} back, oldest first, one at a time, so an export never
+ * needs the whole log in memory.
+ */
+public final class AuditLogReader {
+
+    // Far above any real record; anything bigger means the file is damaged
+    private static final int MAX_RECORD_BYTES = 4096;
+
+    private AuditLogReader() {
+    }
+
+    /**
+     * Reads the rotated files (oldest first) and then the current one. Missing files are skipped.
+     *
+     * @return the number of records delivered
+     */
+    public static int read(File logFile, int maxBackups, Consumer<AuditRecord> consumer) throws IOException {
+        int count = 0;
+        for (int i = maxBackups; i >= 0; i--) {
+            File file = i == 0 ? logFile : AuditLog.backupFile(logFile, i);
+            if (!file.isFile()) continue;
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                count += read(in, consumer);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads one log file. A record cut off at the end (the writer was killed mid-write) is ignored.
+     *
+     * @return the number of records delivered
+     * @throws IOException if the stream is not an audit log or is damaged
+     */
+    public static int read(InputStream in, Consumer<AuditRecord> consumer) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != AuditLog.MAGIC) {
+            throw new IOException("Not an audit log");
+        }
+        int version = data.readUnsignedByte();
+        if (version != AuditLog.VERSION) {
+            throw new IOException("Unsupported audit log version " + version);
+        }
+
+        int count = 0;
+        byte[] buffer = new byte[MAX_RECORD_BYTES];
+        while (true) {
+            int length;
+            try {
+                length = data.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    throw new IOException("Damaged audit log: record length " + length);
+                }
+                data.readFully(buffer, 0, length);
+            } catch (EOFException end) {
+                return count;
+            }
+            consumer.accept(AuditRecord.readFrom(new DataInputStream(new ByteArrayInputStream(buffer, 0, length))));
+            count++;
+        }
+    }
+}
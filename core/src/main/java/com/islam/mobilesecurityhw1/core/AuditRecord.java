@@ -0,0 +1,149 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * One login attempt as written to the {@link AuditLog}: when it happened, how it ended and the
+ * device state it was judged on. The password and coordinates are never recorded.
+ */
+public final class AuditRecord {
+
+    public enum Outcome {
+        SUCCESS,
+        FAILED,
+        TIMED_OUT,
+        /** Location permission missing, so no checks ran. */
+        NO_PERMISSION
+    }
+
+    private static final int FLAT = 1;
+    private static final int NORTH = 1 << 1;
+    private static final int HAS_LOCATION = 1 << 2;
+    private static final int CHARGING = 1 << 3;
+    private static final int WIFI = 1 << 4;
+
+    private final long timestampMs;
+    private final Outcome outcome;
+    private final String failedCheck;
+    private final int batteryLevel;
+    private final int brightness;
+    private final int flags;
+
+    private AuditRecord(long timestampMs, Outcome outcome, String failedCheck, int batteryLevel, int brightness, int flags) {
+        this.timestampMs = timestampMs;
+        this.outcome = outcome;
+        this.failedCheck = failedCheck;
+        this.batteryLevel = batteryLevel;
+        this.brightness = brightness;
+        this.flags = flags;
+    }
+
+    /**
+     * @param timestampMs wall-clock time of the attempt
+     */
+    public static AuditRecord of(long timestampMs, LoginInputs inputs, LoginCheckEvaluator.Result result) {
+        Outcome outcome = result.isSuccess() ? Outcome.SUCCESS
+                : result.isTimedOut() ? Outcome.TIMED_OUT : Outcome.FAILED;
+        String failedCheck = result.isSuccess() ? null : result.getFailedCheck().getName();
+        return create(timestampMs, outcome, failedCheck, inputs.getDeviceState(), inputs.getOrientation(),
+                inputs.hasLocation());
+    }
+
+    public static AuditRecord noPermission(long timestampMs, DeviceState device, OrientationState orientation) {
+        return create(timestampMs, Outcome.NO_PERMISSION, null, device, orientation, false);
+    }
+
+    private static AuditRecord create(long timestampMs, Outcome outcome, String failedCheck, DeviceState device,
+                                      OrientationState orientation, boolean hasLocation) {
+        int flags = (orientation.isFlat() ? FLAT : 0)
+                | (orientation.isPointingNorth() ? NORTH : 0)
+                | (hasLocation ? HAS_LOCATION : 0)
+                | (device.isCharging() ? CHARGING : 0)
+                | (device.isWifiConnected() ? WIFI : 0);
+        return new AuditRecord(timestampMs, outcome, failedCheck, device.getBatteryLevel(), device.getBrightness(), flags);
+    }
+
+    public long getTimestampMs() {
+        return timestampMs;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /** Name of the reported check, or null on success / no permission. */
+    public String getFailedCheck() {
+        return failedCheck;
+    }
+
+    public int getBatteryLevel() {
+        return batteryLevel;
+    }
+
+    public boolean isCharging() {
+        return (flags & CHARGING) != 0;
+    }
+
+    public boolean isWifiConnected() {
+        return (flags & WIFI) != 0;
+    }
+
+    public int getBrightness() {
+        return brightness;
+    }
+
+    public boolean isFlat() {
+        return (flags & FLAT) != 0;
+    }
+
+    public boolean isPointingNorth() {
+        return (flags & NORTH) != 0;
+    }
+
+    public boolean hasLocation() {
+        return (flags & HAS_LOCATION) != 0;
+    }
+
+    /** Column names for {@link #toCsv()}. */
+    public static String csvHeader() {
+        return "timestamp_ms,outcome,failed_check,battery,charging,wifi,brightness,flat,north,has_location";
+    }
+
+    public String toCsv() {
+        return timestampMs + "," + outcome + "," + (failedCheck == null ? "" : failedCheck) + ","
+                + batteryLevel + "," + isCharging() + "," + isWifiConnected() + "," + brightness + ","
+                + isFlat() + "," + isPointingNorth() + "," + hasLocation();
+    }
+
+    @Override
+    public String toString() {
+        return toCsv();
+    }
+
+    // ===== Encoding =====
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(timestampMs);
+        out.writeByte(outcome.ordinal());
+        out.writeUTF(failedCheck == null ? "" : failedCheck);
+        out.writeByte(batteryLevel);
+        out.writeShort(brightness);
+        out.writeByte(flags);
+    }
+
+    static AuditRecord readFrom(DataInput in) throws IOException {
+        long timestampMs = in.readLong();
+        int outcome = in.readUnsignedByte();
+        if (outcome >= Outcome.values().length) {
+            throw new IOException("Unknown outcome " + outcome);
+        }
+        String failedCheck = in.readUTF();
+        int batteryLevel = in.readByte();
+        int brightness = in.readShort();
+        int flags = in.readUnsignedByte();
+        return new AuditRecord(timestampMs, Outcome.values()[outcome], failedCheck.isEmpty() ? null : failedCheck,
+                batteryLevel, brightness, flags);
+    }
+}
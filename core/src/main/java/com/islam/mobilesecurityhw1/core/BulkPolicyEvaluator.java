@@ -0,0 +1,276 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a {@link LoginPolicy} over a whole {@link SnapshotColumns} dataset on a fork-join pool,
+ * answering "how often would each check have passed, and which one would have been reported"
+ * for a policy change before it ships.
+ *
+ * Each task splits its row range until it is {@value #LEAF_ROWS} rows, then sweeps one column
+ * per check over it; per-leaf counts are summed on the way back up. The checks are the app's own
+ * ({@link LoginPolicy#isBrightnessSufficient(int)}, {@link LoginPolicy#isInAllowedZone(double, double)},
+ * {@link OrientationEngine#isFlat} / {@link OrientationEngine#isPointingNorth} at the policy's
+ * tolerances). Snapshots carry no password, so the password check is not evaluated; orientation
+ * is judged on the single reading, without the engine's hysteresis or settling.
+ *
+ * Thread-safe.
+ */
+public final class BulkPolicyEvaluator {
+
+    static final int LEAF_ROWS = 16_384;
+
+    private final LoginPolicy policy;
+    private final ForkJoinPool pool;
+    private final String[] checks;
+
+    /** Evaluates on the common pool. */
+    public BulkPolicyEvaluator(LoginPolicy policy) {
+        this(policy, ForkJoinPool.commonPool());
+    }
+
+    public BulkPolicyEvaluator(LoginPolicy policy, ForkJoinPool pool) {
+        this.policy = policy;
+        this.pool = pool;
+
+        List<String> evaluated = new ArrayList<>(policy.getCheckOrder());
+        evaluated.remove(LoginPolicy.CHECK_PASSWORD);
+        this.checks = evaluated.toArray(new String[0]);
+    }
+
+    public Report evaluate(SnapshotColumns columns) {
+        long start = System.nanoTime();
+        long[] counts = pool.invoke(new Slice(columns, 0, columns.size));
+        return new Report(checks, columns.size, counts, System.nanoTime() - start);
+    }
+
+    /**
+     * {@code evaluatePolicy <policy.properties> <snapshots.csv>}: prints the report for one
+     * dataset. See {@link LoginPolicy#fromProperties} and {@link SnapshotColumns#CSV_HEADER}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: evaluatePolicy <policy.properties> <snapshots.csv>");
+            System.exit(2);
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(args[0])) {
+            properties.load(in);
+        }
+        SnapshotColumns columns;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            columns = SnapshotColumns.readCsv(reader);
+        }
+
+        System.out.print(new BulkPolicyEvaluator(LoginPolicy.fromProperties(properties)).evaluate(columns));
+    }
+
+    // ===== Fork-join =====
+
+    /**
+     * Counts for rows [from, to): n pass counts, then n first-failure counts, then all-passed.
+     */
+    private final class Slice extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final SnapshotColumns columns;
+        private final int from;
+        private final int to;
+
+        Slice(SnapshotColumns columns, int from, int to) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= LEAF_ROWS) {
+                return evaluateLeaf(columns, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            Slice left = new Slice(columns, from, mid);
+            left.fork();
+            long[] counts = new Slice(columns, mid, to).compute();
+            long[] leftCounts = left.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += leftCounts[i];
+            }
+            return counts;
+        }
+    }
+
+    private long[] evaluateLeaf(SnapshotColumns columns, int from, int to) {
+        int n = checks.length;
+        long[] counts = new long[2 * n + 1];
+
+        // One bit per check, in priority order, set where that check failed
+        int[] failed = new int[to - from];
+        for (int c = 0; c < n; c++) {
+            counts[c] = (to - from) - markFailures(checks[c], 1 << c, columns, from, to, failed);
+        }
+
+        for (int mask : failed) {
+            if (mask == 0) {
+                counts[2 * n]++;
+            } else {
+                counts[n + Integer.numberOfTrailingZeros(mask)]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return how many rows failed {@code check}
+     */
+    private int markFailures(String check, int bit, SnapshotColumns col, int from, int to, int[] failed) {
+        int failures = 0;
+        switch (check) {
+            case LoginPolicy.CHECK_BRIGHTNESS:
+                for (int i = from; i < to; i++) {
+                    if (!policy.isBrightnessSufficient(col.brightness[i])) {
+                        failed[i - from] |= bit;
+                        failures++;
+                    }
+                }
+                break;
+            case LoginPolicy.CHECK_WIFI:
+                for (int i = from; i < to; i++) {
+                    if (!col.wifiConnected[i]) {
+                        failed[i - from] |= bit;
+                        failures++;
+                    }
+                }
+                break;
+            case LoginPolicy.CHECK_CHARGING:
+                for (int i = from; i < to; i++) {
+                    if (!col.charging[i]) {
+                        failed[i - from] |= bit;
+                        failures++;
+                    }
+                }
+                break;
+            case LoginPolicy.CHECK_LOCATION:
+                for (int i = from; i < to; i++) {
+                    double lat = col.latitude[i];
+                    if (Double.isNaN(lat) || !policy.isInAllowedZone(lat, col.longitude[i])) {
+                        failed[i - from] |= bit;
+                        failures++;
+                    }
+                }
+                break;
+            case LoginPolicy.CHECK_FLAT: {
+                float tolerance = policy.getFlatToleranceDeg();
+                for (int i = from; i < to; i++) {
+                    if (!OrientationEngine.isFlat(col.pitch[i], col.roll[i], tolerance)) {
+                        failed[i - from] |= bit;
+                        failures++;
+                    }
+                }
+                break;
+            }
+            case LoginPolicy.CHECK_NORTH: {
+                float tolerance = policy.getNorthToleranceDeg();
+                for (int i = from; i < to; i++) {
+                    if (!OrientationEngine.isPointingNorth(col.azimuth[i], tolerance)) {
+                        failed[i - from] |= bit;
+                        failures++;
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown check: " + check);
+        }
+        return failures;
+    }
+
+    // ===== Report =====
+
+    /** Outcome of one {@link #evaluate} run. Immutable. */
+    public static final class Report {
+        private final String[] checks;
+        private final int rows;
+        private final long[] counts;
+        private final long elapsedNanos;
+
+        Report(String[] checks, int rows, long[] counts, long elapsedNanos) {
+            this.checks = checks;
+            this.rows = rows;
+            this.counts = counts;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        /** The checks that were evaluated, in priority order (the policy's order minus the password). */
+        public List<String> getChecks() {
+            return Collections.unmodifiableList(Arrays.asList(checks));
+        }
+
+        /** Rows on which {@code check} passed, regardless of the other checks. */
+        public long getPassCount(String check) {
+            return counts[indexOf(check)];
+        }
+
+        public long getFailureCount(String check) {
+            return rows - getPassCount(check);
+        }
+
+        /** Rows on which {@code check} is the one that would have been reported. */
+        public long getFirstFailureCount(String check) {
+            return counts[checks.length + indexOf(check)];
+        }
+
+        /** Rows on which every evaluated check passed. */
+        public long getAllPassedCount() {
+            return counts[2 * checks.length];
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        private int indexOf(String check) {
+            for (int i = 0; i < checks.length; i++) {
+                if (checks[i].equals(check)) return i;
+            }
+            throw new IllegalArgumentException("Not evaluated: " + check);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%-12s %12s %12s %14s%n", "check", "passed", "failed", "first failure"));
+            for (String check : checks) {
+                sb.append(String.format("%-12s %12d %12d %14d%n", check,
+                        getPassCount(check), getFailureCount(check), getFirstFailureCount(check)));
+            }
+            sb.append(String.format("%-12s %12d%n", "all passed", getAllPassedCount()));
+            sb.append(String.format("%d rows in %.1f ms (%.0f rows/s)%n",
+                    rows, elapsedNanos / 1e6, getRowsPerSecond()));
+            return sb.toString();
+        }
+    }
+}
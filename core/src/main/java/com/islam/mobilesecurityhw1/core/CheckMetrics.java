@@ -0,0 +1,156 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-check latency histograms and pass/fail counters, plus trace sections around each check.
+ *
+ * When disabled, {@link #instrument(LoginCheck)} hands back the check itself and
+ * {@link #record} returns immediately, so there is no cost beyond a field read.
+ */
+public final class CheckMetrics {
+
+    /** Receives begin/end of each instrumented check, e.g. android.os.Trace. */
+    public interface Tracer {
+        void beginSection(String name);
+
+        void endSection();
+    }
+
+    public static final CheckMetrics DISABLED = new CheckMetrics(false, null);
+
+    private static volatile CheckMetrics installed = DISABLED;
+
+    private final boolean enabled;
+    private final Tracer tracer;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private CheckMetrics(boolean enabled, Tracer tracer) {
+        this.enabled = enabled;
+        this.tracer = tracer;
+    }
+
+    public static CheckMetrics enabled(Tracer tracer) {
+        return new CheckMetrics(true, tracer);
+    }
+
+    /** The process-wide instance; {@link #DISABLED} until {@link #install} is called. */
+    public static CheckMetrics get() {
+        return installed;
+    }
+
+    public static void install(CheckMetrics metrics) {
+        installed = metrics;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wraps {@code check} so every evaluation is timed, counted and traced.
+     */
+    public LoginCheck instrument(LoginCheck check) {
+        if (!enabled) return check;
+        return new InstrumentedCheck(check, entry(check.getName()));
+    }
+
+    /**
+     * Records one outcome of an operation measured by the caller (e.g. a location callback).
+     */
+    public void record(String name, long nanos, boolean success) {
+        if (!enabled) return;
+        entry(name).record(nanos, success);
+    }
+
+    /**
+     * Human-readable table of everything recorded so far, sorted by name.
+     */
+    public String dump() {
+        if (!enabled) return "Check metrics disabled\n";
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-20s %8s %8s %10s %10s %10s %10s%n",
+                "name", "pass", "fail", "mean_us", "p50_us", "p99_us", "max_us"));
+        for (Map.Entry<String, Entry> e : new TreeMap<>(entries).entrySet()) {
+            Entry entry = e.getValue();
+            LatencyHistogram h = entry.latency;
+            sb.append(String.format("%-20s %8d %8d %10d %10d %10d %10d%n",
+                    e.getKey(), entry.passes.get(), entry.failures.get(),
+                    h.getMeanNanos() / 1000, h.getPercentileNanos(50) / 1000,
+                    h.getPercentileNanos(99) / 1000, h.getMaxNanos() / 1000));
+        }
+        return sb.toString();
+    }
+
+    public long getPassCount(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? 0 : entry.passes.get();
+    }
+
+    public long getFailureCount(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? 0 : entry.failures.get();
+    }
+
+    /** Latency histogram for {@code name}, or null if nothing was recorded. */
+    public LatencyHistogram getLatency(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? null : entry.latency;
+    }
+
+    private Entry entry(String name) {
+        Entry entry = entries.get(name);
+        return entry != null ? entry : entries.computeIfAbsent(name, k -> new Entry());
+    }
+
+    private static final class Entry {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong passes = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+
+        void record(long nanos, boolean success) {
+            latency.record(nanos);
+            (success ? passes : failures).incrementAndGet();
+        }
+    }
+
+    private final class InstrumentedCheck implements LoginCheck {
+        private final LoginCheck delegate;
+        private final Entry entry;
+        private final String sectionName;
+
+        InstrumentedCheck(LoginCheck delegate, Entry entry) {
+            this.delegate = delegate;
+            this.entry = entry;
+            this.sectionName = "check:" + delegate.getName();
+        }
+
+        @Override
+        public boolean passes() throws Exception {
+            if (tracer != null) tracer.beginSection(sectionName);
+            long start = System.nanoTime();
+            boolean passed = false;
+            try {
+                passed = delegate.passes();
+                return passed;
+            } finally {
+                entry.record(System.nanoTime() - start, passed);
+                if (tracer != null) tracer.endSection();
+            }
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public String getFailureMessage() {
+            return delegate.getFailureMessage();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executable form of a {@link LoginPolicy}'s checks that learns a cheap evaluation order.
+ *
+ * Each check's cost and failure rate are tracked as moving averages, and the run order is
+ * periodically re-sorted by cost / failure rate, so a typical rejected attempt hits its failing
+ * check after as little work as possible. The reported failure is still the first failing
+ * check in <em>priority</em> order: once some check fails, lower-priority checks are skipped
+ * and only the not-yet-run higher-priority ones are evaluated.
+ *
+ * Given an executor, all checks start at once (in the learned order, which matters only when
+ * the executor has fewer threads than checks), so an attempt takes about as long as its slowest
+ * check rather than the sum; priority order then only decides which failure is reported.
+ *
+ * Evaluations are serialized; the plan is meant to be shared by all attempts in the process.
+ */
+public final class CheckPlan {
+
+    // Weight of the newest observation in the moving averages
+    private static final double ALPHA = 0.1;
+    private static final int REORDER_INTERVAL = 16;
+    // Keeps checks that never fail from getting an infinite score
+    private static final double MIN_FAILURE_RATE = 0.01;
+    private static final double INITIAL_FAILURE_RATE = 0.5;
+
+    private static final byte NOT_RUN = 0;
+    private static final byte PASSED = 1;
+    private static final byte FAILED = 2;
+    private static final byte TIMED_OUT = 3;
+
+    private final List<String> names;
+    private final double[] costNanos;
+    private final long[] runs;
+    private final double[] failureRate;
+    private final Integer[] runOrder;
+    private final byte[] outcomes;
+    private int evaluations = 0;
+
+    public CheckPlan(LoginPolicy policy) {
+        names = policy.getCheckOrder();
+        int n = names.size();
+        costNanos = new double[n];
+        runs = new long[n];
+        failureRate = new double[n];
+        Arrays.fill(failureRate, INITIAL_FAILURE_RATE);
+        runOrder = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            runOrder[i] = i;
+        }
+        outcomes = new byte[n];
+    }
+
+    /**
+     * Runs the checks on the calling thread.
+     *
+     * @param checks       one attempt's checks, in the policy's priority order
+     * @param deadlineNanos {@link System#nanoTime()} after which no further check is started;
+     *                      the highest-priority check that didn't get to run is reported as timed out
+     */
+    public LoginCheckEvaluator.Result evaluate(List<LoginCheck> checks, long deadlineNanos) {
+        return evaluate(checks, deadlineNanos, null);
+    }
+
+    /**
+     * Starts every check on {@code checkExecutor} and collects the outcomes in priority order until
+     * the deadline. The first failure ends the wait: checks still running are interrupted, as is a
+     * check that hangs past the deadline (e.g. a binder call), which is reported as timed out.
+     * If the calling thread is one of the executor's, only its other threads run checks.
+     *
+     * @param checkExecutor null to run the checks one by one on the calling thread
+     */
+    public synchronized LoginCheckEvaluator.Result evaluate(List<LoginCheck> checks, long deadlineNanos,
+                                                            ExecutorService checkExecutor) {
+        if (checks.size() != names.size()) {
+            throw new IllegalArgumentException("Expected " + names.size() + " checks, got " + checks.size());
+        }
+
+        Arrays.fill(outcomes, NOT_RUN);
+        if (checkExecutor == null) {
+            runInline(checks, deadlineNanos);
+        } else {
+            runConcurrently(checks, deadlineNanos, checkExecutor);
+        }
+
+        if (++evaluations % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+
+        for (int i = 0; i < checks.size(); i++) {
+            if (outcomes[i] == FAILED) return LoginCheckEvaluator.Result.failure(checks.get(i), false);
+            if (outcomes[i] != PASSED) return LoginCheckEvaluator.Result.failure(checks.get(i), true);
+        }
+        return LoginCheckEvaluator.Result.success();
+    }
+
+    /** Check names in the order they are currently run. */
+    public synchronized List<String> getRunOrder() {
+        List<String> order = new ArrayList<>(runOrder.length);
+        for (int index : runOrder) {
+            order.add(names.get(index));
+        }
+        return order;
+    }
+
+    private void runInline(List<LoginCheck> checks, long deadlineNanos) {
+        int firstFailed = checks.size();
+        for (int index : runOrder) {
+            // A lower-priority failure can never be the reported one
+            if (index > firstFailed) continue;
+            if (System.nanoTime() - deadlineNanos > 0) break;
+
+            long start = System.nanoTime();
+            boolean passed = passes(checks.get(index));
+            record(index, passed ? PASSED : FAILED, System.nanoTime() - start);
+            if (!passed && index < firstFailed) {
+                firstFailed = index;
+            }
+        }
+    }
+
+    private void runConcurrently(List<LoginCheck> checks, long deadlineNanos, ExecutorService checkExecutor) {
+        int n = checks.size();
+        long[] costs = new long[n]; // written by each task before its future completes
+        @SuppressWarnings("unchecked")
+        Future<Boolean>[] futures = new Future[n];
+        long submitted = System.nanoTime();
+        for (int index : runOrder) {
+            LoginCheck check = checks.get(index);
+            futures[index] = checkExecutor.submit(() -> {
+                long start = System.nanoTime();
+                boolean passed = passes(check);
+                costs[index] = System.nanoTime() - start;
+                return passed;
+            });
+        }
+
+        int reported = 0;
+        while (reported < n) {
+            byte outcome = await(futures[reported], deadlineNanos);
+            record(reported, outcome, outcome == TIMED_OUT ? System.nanoTime() - submitted : costs[reported]);
+            if (outcome != PASSED) break;
+            reported++;
+        }
+
+        // Lowest priority first, so a queued check is cancelled before the one ahead of it is interrupted
+        for (int i = n - 1; i > reported; i--) {
+            Future<Boolean> future = futures[i];
+            if (future.cancel(true)) continue;
+            // Finished before it could be cancelled: still worth learning from
+            byte outcome = await(future, System.nanoTime());
+            if (outcome != TIMED_OUT) record(i, outcome, costs[i]);
+        }
+    }
+
+    private static byte await(Future<Boolean> future, long deadlineNanos) {
+        try {
+            return future.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS) ? PASSED : FAILED;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return TIMED_OUT;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return TIMED_OUT;
+        } catch (CancellationException | ExecutionException e) {
+            return FAILED;
+        }
+    }
+
+    private void record(int index, byte outcome, long cost) {
+        outcomes[index] = outcome;
+        costNanos[index] = runs[index]++ == 0 ? cost : costNanos[index] + ALPHA * (cost - costNanos[index]);
+        failureRate[index] += ALPHA * ((outcome == PASSED ? 0 : 1) - failureRate[index]);
+    }
+
+    private static boolean passes(LoginCheck check) {
+        try {
+            return check.passes();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Cheapest expected cost to find a failure first: sort by cost / P(fail), ties by priority.
+     */
+    private void reorder() {
+        Arrays.sort(runOrder, (a, b) -> {
+            int byScore = Double.compare(score(a), score(b));
+            return byScore != 0 ? byScore : Integer.compare(a, b);
+        });
+    }
+
+    private double score(int index) {
+        return costNanos[index] / Math.max(failureRate[index], MIN_FAILURE_RATE);
+    }
+}
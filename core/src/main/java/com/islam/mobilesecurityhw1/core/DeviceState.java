@@ -0,0 +1,63 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Immutable snapshot of the device conditions the login checks need.
+ * Every change produces a new instance with a higher version.
+ */
+public final class DeviceState {
+
+    public static final int UNKNOWN = -1;
+
+    public static final DeviceState INITIAL = new DeviceState(0, UNKNOWN, false, false, UNKNOWN);
+
+    private final long version;
+    private final int batteryLevel;   // 0..100
+    private final boolean charging;
+    private final boolean wifiConnected;
+    private final int brightness;     // 0..255
+
+    private DeviceState(long version, int batteryLevel, boolean charging, boolean wifiConnected, int brightness) {
+        this.version = version;
+        this.batteryLevel = batteryLevel;
+        this.charging = charging;
+        this.wifiConnected = wifiConnected;
+        this.brightness = brightness;
+    }
+
+    public DeviceState withBattery(int batteryLevel, boolean charging) {
+        if (batteryLevel == this.batteryLevel && charging == this.charging) return this;
+        return new DeviceState(version + 1, batteryLevel, charging, wifiConnected, brightness);
+    }
+
+    public DeviceState withWifiConnected(boolean wifiConnected) {
+        if (wifiConnected == this.wifiConnected) return this;
+        return new DeviceState(version + 1, batteryLevel, charging, wifiConnected, brightness);
+    }
+
+    public DeviceState withBrightness(int brightness) {
+        if (brightness == this.brightness) return this;
+        return new DeviceState(version + 1, batteryLevel, charging, wifiConnected, brightness);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** Battery percentage, or {@link #UNKNOWN}. */
+    public int getBatteryLevel() {
+        return batteryLevel;
+    }
+
+    public boolean isCharging() {
+        return charging;
+    }
+
+    public boolean isWifiConnected() {
+        return wifiConnected;
+    }
+
+    /** Screen brightness on a 0-255 scale, or {@link #UNKNOWN}. */
+    public int getBrightness() {
+        return brightness;
+    }
+}
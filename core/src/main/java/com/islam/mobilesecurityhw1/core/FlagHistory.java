@@ -0,0 +1,44 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Fixed-size ring of (time, flags) samples that answers "has this flag held for at least N ms?".
+ * Backed by primitive arrays, so adding and querying never allocate. Not thread-safe.
+ */
+final class FlagHistory {
+
+    private final long[] times;
+    private final byte[] flags;
+    private int next = 0;
+    private int size = 0;
+
+    FlagHistory(int capacity) {
+        times = new long[capacity];
+        flags = new byte[capacity];
+    }
+
+    void add(long nanos, int flagBits) {
+        times[next] = nanos;
+        flags[next] = (byte) flagBits;
+        next = (next + 1) % times.length;
+        if (size < times.length) size++;
+    }
+
+    /**
+     * True if every sample in the last {@code windowNanos} before {@code nowNanos} has {@code flag},
+     * and so does the sample in effect at the start of that window. False if the ring doesn't
+     * reach back that far.
+     */
+    boolean heldFor(int flag, long nowNanos, long windowNanos) {
+        for (int k = 1; k <= size; k++) {
+            int i = (next - k + times.length) % times.length;
+            if ((flags[i] & flag) == 0) return false;
+            if (nowNanos - times[i] >= windowNanos) return true;
+        }
+        return false;
+    }
+
+    void clear() {
+        next = 0;
+        size = 0;
+    }
+}
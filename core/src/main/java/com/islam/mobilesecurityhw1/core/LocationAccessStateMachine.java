@@ -0,0 +1,159 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Tracks where we are on the way to usable location: permission first, then location settings.
+ *
+ * The result of a settings check is cached until something that can change it happens
+ * (permission result, location-provider change, settings resolution result), and at most one
+ * settings check or permission request is in flight at a time. Shared by MainActivity and
+ * FinalPermissionActivity through the app's LocationAccess holder.
+ */
+public class LocationAccessStateMachine {
+
+    public enum State {
+        /** Nothing known yet. */
+        UNKNOWN,
+        /** The runtime permission dialog is showing. */
+        REQUESTING_PERMISSION,
+        /** Fine location is not granted. */
+        NO_PERMISSION,
+        /** Permission granted; location settings must be (re)checked. */
+        SETTINGS_UNKNOWN,
+        /** A settings check is in flight. */
+        CHECKING_SETTINGS,
+        /** The settings resolution dialog is showing. */
+        RESOLVING_SETTINGS,
+        /** Location settings are off and could not be fixed. */
+        SETTINGS_UNSATISFIED,
+        /** Permission granted and settings satisfied. */
+        READY
+    }
+
+    public enum SettingsResult {
+        SATISFIED,
+        RESOLVABLE,
+        UNSATISFIED
+    }
+
+    private State state = State.UNKNOWN;
+    // A provider change arrived while a check was in flight; its result is already stale
+    private boolean settingsChangedDuringCheck = false;
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean isReady() {
+        return state == State.READY;
+    }
+
+    /**
+     * Reports the current permission status (e.g. from checkSelfPermission on resume).
+     * A cached settings result survives as long as the permission stays granted.
+     */
+    public synchronized void onPermissionChecked(boolean granted) {
+        if (!granted) {
+            if (state != State.REQUESTING_PERMISSION) {
+                state = State.NO_PERMISSION;
+            }
+            return;
+        }
+        if (state == State.UNKNOWN || state == State.NO_PERMISSION) {
+            state = State.SETTINGS_UNKNOWN;
+        }
+    }
+
+    /**
+     * @return true if the caller should launch the permission request; false if one is already showing
+     */
+    public synchronized boolean beginPermissionRequest() {
+        if (state == State.REQUESTING_PERMISSION) return false;
+        state = State.REQUESTING_PERMISSION;
+        return true;
+    }
+
+    public synchronized void onPermissionResult(boolean granted) {
+        state = granted ? State.SETTINGS_UNKNOWN : State.NO_PERMISSION;
+    }
+
+    /**
+     * @return true if the caller should start a settings check; false if one is in flight,
+     *         a resolution is showing, the result is cached, or permission is missing
+     */
+    public synchronized boolean beginSettingsCheck() {
+        if (state != State.SETTINGS_UNKNOWN) return false;
+        state = State.CHECKING_SETTINGS;
+        settingsChangedDuringCheck = false;
+        return true;
+    }
+
+    public synchronized void onSettingsResult(SettingsResult result) {
+        if (state != State.CHECKING_SETTINGS) return;
+
+        if (settingsChangedDuringCheck) {
+            state = State.SETTINGS_UNKNOWN;
+            return;
+        }
+        switch (result) {
+            case SATISFIED:
+                state = State.READY;
+                break;
+            case RESOLVABLE:
+                state = State.RESOLVING_SETTINGS;
+                break;
+            default:
+                state = State.SETTINGS_UNSATISFIED;
+                break;
+        }
+    }
+
+    /**
+     * A previous run found the settings satisfied recently enough to trust (see WarmStartSnapshot).
+     * Takes effect only if permission is known to be granted and no check has run yet; a later
+     * provider change still invalidates it.
+     */
+    public synchronized void onSettingsRestored() {
+        if (state == State.SETTINGS_UNKNOWN) {
+            state = State.READY;
+        }
+    }
+
+    /**
+     * Result of the settings resolution activity (request code 1001).
+     */
+    public synchronized void onResolutionResult(boolean resolved) {
+        if (state != State.RESOLVING_SETTINGS) return;
+        state = resolved ? State.READY : State.SETTINGS_UNSATISFIED;
+    }
+
+    /**
+     * The activity is back in the foreground. Its resolution result, if any, was delivered before
+     * this, so a resolution still pending lost its result (the dialog died, or the activity was
+     * recreated) and the settings must be checked again.
+     */
+    public synchronized void onResumed() {
+        if (state == State.RESOLVING_SETTINGS) {
+            state = State.SETTINGS_UNKNOWN;
+        }
+    }
+
+    /**
+     * Location providers were toggled, or the user asked to retry: any cached settings result is stale.
+     * A resolution in progress is abandoned too; its late result is ignored and the settings rechecked.
+     */
+    public synchronized void invalidateSettings() {
+        switch (state) {
+            case CHECKING_SETTINGS:
+                settingsChangedDuringCheck = true;
+                break;
+            case READY:
+            case RESOLVING_SETTINGS:
+            case SETTINGS_UNSATISFIED:
+                state = State.SETTINGS_UNKNOWN;
+                break;
+            default:
+                // No settings result cached
+                break;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Decides whether a location fix is good enough to run the zone check on.
+ */
+public final class LocationPolicy {
+
+    private final long maxAgeMs;
+    private final float maxAccuracyMeters;
+    private final long requestTimeoutMs;
+
+    /**
+     * @param maxAgeMs          oldest fix (by elapsed-realtime) that is still accepted
+     * @param maxAccuracyMeters worst reported accuracy radius that is still accepted
+     * @param requestTimeoutMs  how long a single current-location request may run
+     */
+    public LocationPolicy(long maxAgeMs, float maxAccuracyMeters, long requestTimeoutMs) {
+        this.maxAgeMs = maxAgeMs;
+        this.maxAccuracyMeters = maxAccuracyMeters;
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
+    public boolean isAcceptable(long ageMs, boolean hasAccuracy, float accuracyMeters) {
+        return ageMs >= 0 && ageMs <= maxAgeMs
+                && hasAccuracy && accuracyMeters <= maxAccuracyMeters;
+    }
+
+    public long getMaxAgeMs() {
+        return maxAgeMs;
+    }
+
+    public float getMaxAccuracyMeters() {
+        return maxAccuracyMeters;
+    }
+
+    public long getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+}
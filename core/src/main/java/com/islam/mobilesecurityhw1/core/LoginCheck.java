@@ -0,0 +1,43 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * A single login condition. Checks must be independent of each other so they can run concurrently.
+ */
+public interface LoginCheck {
+
+    /**
+     * @return true if the condition is met. Throwing counts as a failure.
+     */
+    boolean passes() throws Exception;
+
+    /**
+     * Short, stable identifier used for metrics and traces (e.g. "wifi").
+     */
+    String getName();
+
+    /**
+     * Message shown to the user when this is the first failing check.
+     */
+    String getFailureMessage();
+
+    static LoginCheck of(String name, String failureMessage, BooleanSupplier condition) {
+        return new LoginCheck() {
+            @Override
+            public boolean passes() {
+                return condition.getAsBoolean();
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getFailureMessage() {
+                return failureMessage;
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs one attempt's {@link LoginCheck}s concurrently through a {@link CheckPlan} off the calling
+ * thread, so latency is bounded by the slowest check rather than the sum, and reports the first
+ * failing one in priority order. The result is delivered by the deadline even
+ * if a check hangs: a check still running then counts as failed (timed out).
+ */
+public class LoginCheckEvaluator {
+
+    public interface Callback {
+        void onResult(Result result);
+    }
+
+    public static final class Result {
+        private static final Result SUCCESS = new Result(null, false);
+
+        private final LoginCheck failedCheck;
+        private final boolean timedOut;
+
+        private Result(LoginCheck failedCheck, boolean timedOut) {
+            this.failedCheck = failedCheck;
+            this.timedOut = timedOut;
+        }
+
+        static Result success() {
+            return SUCCESS;
+        }
+
+        static Result failure(LoginCheck failedCheck, boolean timedOut) {
+            return new Result(failedCheck, timedOut);
+        }
+
+        public boolean isSuccess() {
+            return failedCheck == null;
+        }
+
+        /** The highest-priority failing check, or null on success. */
+        public LoginCheck getFailedCheck() {
+            return failedCheck;
+        }
+
+        /** True if the failed check did not finish before the deadline. */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+    }
+
+    private final ExecutorService executor;
+
+    /**
+     * @param executor runs the plan and, on its other threads, the checks; with one thread per check
+     *                 plus one, every check of an attempt runs at once
+     */
+    public LoginCheckEvaluator(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Runs {@code checks} through {@code plan}, all at once, on the executor;
+     * {@code callback} is invoked exactly once on {@code callbackExecutor}, within about {@code deadlineMs}.
+     */
+    public void evaluate(CheckPlan plan, List<LoginCheck> checks, long deadlineMs,
+                         Executor callbackExecutor, Callback callback) {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        executor.execute(() -> {
+            Result result = plan.evaluate(checks, deadlineNanos, executor);
+            callbackExecutor.execute(() -> callback.onResult(result));
+        });
+    }
+}
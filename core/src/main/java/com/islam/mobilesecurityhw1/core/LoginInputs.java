@@ -0,0 +1,24 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Everything a login attempt is judged on, captured at the moment of the attempt.
+ */
+public interface LoginInputs {
+
+    /**
+     * The typed password. May be a live, mutable buffer (an EditText's Editable), so it is only
+     * read on the thread that builds the checks and never copied into a String.
+     */
+    CharSequence getPassword();
+
+    DeviceState getDeviceState();
+
+    OrientationState getOrientation();
+
+    /** False while no acceptable location fix is available. */
+    boolean hasLocation();
+
+    double getLatitude();
+
+    double getLongitude();
+}
@@ -0,0 +1,264 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The login rules: which conditions must hold, in which priority order, and what the user is told
+ * when one doesn't. Android-free, so the same rules run in the app, in tests and in benchmarks.
+ *
+ * The app loads its policy from a properties file (see {@link #fromProperties}); the constructor
+ * gives the built-in defaults for everything but the four core parameters.
+ */
+public final class LoginPolicy {
+
+    public static final String CHECK_BRIGHTNESS = "brightness";
+    public static final String CHECK_PASSWORD = "password";
+    public static final String CHECK_WIFI = "wifi";
+    public static final String CHECK_CHARGING = "charging";
+    public static final String CHECK_LOCATION = "location";
+    public static final String CHECK_FLAT = "flat";
+    public static final String CHECK_NORTH = "north";
+
+    /** Every known check, in the default priority order. */
+    public static final List<String> ALL_CHECKS = Collections.unmodifiableList(Arrays.asList(
+            CHECK_BRIGHTNESS, CHECK_PASSWORD, CHECK_WIFI, CHECK_CHARGING, CHECK_LOCATION, CHECK_FLAT, CHECK_NORTH));
+
+    private final PasswordMatcher passwordMatcher;
+    private final int minBrightness;
+    private final ZoneIndex allowedZones;
+    private final List<String> checkOrder;
+    private final Map<String, String> messages;
+    private final float flatToleranceDeg;
+    private final float northToleranceDeg;
+
+    /**
+     * @param passwordPrefix  the password is this prefix + the sum of the battery level's digits
+     * @param minBrightness   minimum screen brightness, 0-255
+     * @param allowedZones    the user must be inside one of these
+     * @param zoneDescription names the zones in the error message, e.g. "Arrabah or Tel Aviv"
+     */
+    public LoginPolicy(String passwordPrefix, int minBrightness, ZoneIndex allowedZones, String zoneDescription) {
+        this(passwordPrefix, minBrightness, allowedZones, ALL_CHECKS, defaultMessages(zoneDescription),
+                OrientationEngine.FLAT_TOLERANCE_DEG, OrientationEngine.NORTH_TOLERANCE_DEG);
+    }
+
+    private LoginPolicy(String passwordPrefix, int minBrightness, ZoneIndex allowedZones, List<String> checkOrder,
+                        Map<String, String> messages, float flatToleranceDeg, float northToleranceDeg) {
+        this.passwordMatcher = new PasswordMatcher(passwordPrefix);
+        this.minBrightness = minBrightness;
+        this.allowedZones = allowedZones;
+        this.checkOrder = Collections.unmodifiableList(new ArrayList<>(checkOrder));
+        this.messages = messages;
+        this.flatToleranceDeg = flatToleranceDeg;
+        this.northToleranceDeg = northToleranceDeg;
+    }
+
+    /**
+     * Reads a policy file. Keys:
+     * <pre>
+     * password.prefix, brightness.min, zone.description,
+     * zone.N = lat,lng,radiusMeters   (N = 0, 1, 2, ... without gaps)
+     * orientation.flatToleranceDeg, orientation.northToleranceDeg   (optional)
+     * checks = comma-separated check names in priority order      (optional, default: all)
+     * message.NAME = message shown when that check fails           (optional)
+     * </pre>
+     *
+     * @throws IllegalArgumentException if a required key is missing or a value is malformed
+     */
+    public static LoginPolicy fromProperties(Properties p) {
+        String prefix = required(p, "password.prefix");
+        int minBrightness = parseInt("brightness.min", required(p, "brightness.min"));
+        String zoneDescription = required(p, "zone.description");
+
+        ZoneIndex.Builder zones = new ZoneIndex.Builder();
+        for (int i = 0; p.getProperty("zone." + i) != null; i++) {
+            String key = "zone." + i;
+            String[] parts = p.getProperty(key).split(",");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(key + " must be lat,lng,radiusMeters");
+            }
+            zones.add(parseDouble(key, parts[0]), parseDouble(key, parts[1]), parseDouble(key, parts[2]));
+        }
+
+        List<String> order = ALL_CHECKS;
+        String checks = p.getProperty("checks");
+        if (checks != null) {
+            order = new ArrayList<>();
+            for (String name : checks.split(",")) {
+                name = name.trim();
+                if (!ALL_CHECKS.contains(name) || order.contains(name)) {
+                    throw new IllegalArgumentException("Unknown or repeated check: " + name);
+                }
+                order.add(name);
+            }
+        }
+
+        Map<String, String> messages = defaultMessages(zoneDescription);
+        for (String name : ALL_CHECKS) {
+            String message = p.getProperty("message." + name);
+            if (message != null) messages.put(name, message);
+        }
+
+        float flatTolerance = (float) parseDouble("orientation.flatToleranceDeg",
+                p.getProperty("orientation.flatToleranceDeg", String.valueOf(OrientationEngine.FLAT_TOLERANCE_DEG)));
+        float northTolerance = (float) parseDouble("orientation.northToleranceDeg",
+                p.getProperty("orientation.northToleranceDeg", String.valueOf(OrientationEngine.NORTH_TOLERANCE_DEG)));
+
+        return new LoginPolicy(prefix, minBrightness, zones.build(), order, messages, flatTolerance, northTolerance);
+    }
+
+    /**
+     * The checks for one attempt in priority order: the first failing one is the one reported.
+     * The password is matched right here, on the calling thread, since it may be a live input buffer.
+     */
+    public List<LoginCheck> buildChecks(LoginInputs in) {
+        boolean passwordValid = isPasswordValid(in.getPassword(), in.getDeviceState());
+
+        List<LoginCheck> checks = new ArrayList<>(checkOrder.size());
+        for (String name : checkOrder) {
+            checks.add(LoginCheck.of(name, messages.get(name), condition(name, in, passwordValid)));
+        }
+        return checks;
+    }
+
+    private BooleanSupplier condition(String name, LoginInputs in, boolean passwordValid) {
+        if (CHECK_PASSWORD.equals(name)) {
+            return () -> passwordValid;
+        }
+        return () -> isMet(name, in);
+    }
+
+    /**
+     * Evaluates one check right now, on the calling thread.
+     */
+    public boolean isMet(String check, LoginInputs in) {
+        switch (check) {
+            case CHECK_BRIGHTNESS:
+                return isBrightnessSufficient(in.getDeviceState());
+            case CHECK_PASSWORD:
+                return isPasswordValid(in.getPassword(), in.getDeviceState());
+            case CHECK_WIFI:
+                return in.getDeviceState().isWifiConnected();
+            case CHECK_CHARGING:
+                return in.getDeviceState().isCharging();
+            case CHECK_LOCATION:
+                return isInAllowedZone(in);
+            case CHECK_FLAT:
+                return in.getOrientation().isFlat();
+            case CHECK_NORTH:
+                return in.getOrientation().isPointingNorth();
+            default:
+                throw new IllegalArgumentException("Unknown check: " + check);
+        }
+    }
+
+    /**
+     * Runs the checks one after another on the calling thread.
+     *
+     * @return the first failing check, or null if all pass
+     */
+    public LoginCheck firstFailure(LoginInputs in) {
+        for (LoginCheck check : buildChecks(in)) {
+            boolean passed;
+            try {
+                passed = check.passes();
+            } catch (Exception e) {
+                passed = false;
+            }
+            if (!passed) return check;
+        }
+        return null;
+    }
+
+    public boolean isBrightnessSufficient(DeviceState state) {
+        return isBrightnessSufficient(state.getBrightness());
+    }
+
+    /** @param brightness screen brightness, 0-255 */
+    public boolean isBrightnessSufficient(int brightness) {
+        return brightness >= minBrightness;
+    }
+
+    /**
+     * The password must be the prefix + the sum of the digits of current battery level.
+     * e.g. battery=87 => sum=15 => correct password = "10s20w30q15"
+     */
+    public boolean isPasswordValid(CharSequence inputPassword, DeviceState state) {
+        return passwordMatcher.matches(inputPassword, state.getBatteryLevel());
+    }
+
+    public boolean isInAllowedZone(LoginInputs in) {
+        return in.hasLocation() && isInAllowedZone(in.getLatitude(), in.getLongitude());
+    }
+
+    public boolean isInAllowedZone(double latitude, double longitude) {
+        return allowedZones.contains(latitude, longitude);
+    }
+
+    /** Check names in priority order. */
+    public List<String> getCheckOrder() {
+        return checkOrder;
+    }
+
+    public float getFlatToleranceDeg() {
+        return flatToleranceDeg;
+    }
+
+    public float getNorthToleranceDeg() {
+        return northToleranceDeg;
+    }
+
+    public static int sumOfDigits(int value) {
+        int sum = 0;
+        while (value > 0) {
+            sum += value % 10;
+            value /= 10;
+        }
+        return sum;
+    }
+
+    // ===== Parsing helpers =====
+
+    private static Map<String, String> defaultMessages(String zoneDescription) {
+        Map<String, String> messages = new HashMap<>();
+        messages.put(CHECK_BRIGHTNESS, "Screen brightness must be at least 50%.");
+        messages.put(CHECK_PASSWORD, "Password must contain the sum of your battery digits (e.g., battery=87 => sum=15).");
+        messages.put(CHECK_WIFI, "You must be connected to a WiFi network.");
+        messages.put(CHECK_CHARGING, "Device must be charging.");
+        messages.put(CHECK_LOCATION, "You must be near " + zoneDescription + ".");
+        messages.put(CHECK_FLAT, "Device must be lying flat.");
+        messages.put(CHECK_NORTH, "Device must be pointing north.");
+        return messages;
+    }
+
+    private static String required(Properties p, String key) {
+        String value = p.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing " + key);
+        }
+        return value.trim();
+    }
+
+    private static int parseInt(String key, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a number: " + value, e);
+        }
+    }
+
+    private static double parseDouble(String key, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a number: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Immutable {@link LoginInputs}.
+ */
+public final class LoginSnapshot implements LoginInputs {
+
+    private final CharSequence password;
+    private final DeviceState deviceState;
+    private final OrientationState orientation;
+    private final boolean hasLocation;
+    private final double latitude;
+    private final double longitude;
+
+    private LoginSnapshot(CharSequence password, DeviceState deviceState, OrientationState orientation,
+                          boolean hasLocation, double latitude, double longitude) {
+        this.password = password;
+        this.deviceState = deviceState;
+        this.orientation = orientation;
+        this.hasLocation = hasLocation;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public static LoginSnapshot withLocation(CharSequence password, DeviceState deviceState, OrientationState orientation,
+                                             double latitude, double longitude) {
+        return new LoginSnapshot(password, deviceState, orientation, true, latitude, longitude);
+    }
+
+    public static LoginSnapshot withoutLocation(CharSequence password, DeviceState deviceState, OrientationState orientation) {
+        return new LoginSnapshot(password, deviceState, orientation, false, Double.NaN, Double.NaN);
+    }
+
+    @Override
+    public CharSequence getPassword() {
+        return password;
+    }
+
+    @Override
+    public DeviceState getDeviceState() {
+        return deviceState;
+    }
+
+    @Override
+    public OrientationState getOrientation() {
+        return orientation;
+    }
+
+    @Override
+    public boolean hasLocation() {
+        return hasLocation;
+    }
+
+    @Override
+    public double getLatitude() {
+        return latitude;
+    }
+
+    @Override
+    public double getLongitude() {
+        return longitude;
+    }
+}
@@ -0,0 +1,350 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Turns sensor samples into stable flat / pointing-north flags.
+ *
+ * Input is either the fused rotation-vector sensor or, as a fallback, an accelerometer +
+ * magnetometer pair that is low-pass filtered first. Each flag has hysteresis (it turns on inside
+ * the tolerance and only turns off beyond tolerance + {@link #HYSTERESIS_DEG}) and counts only once
+ * it has held for a stable window, tracked in a primitive ring buffer. Azimuth is compared as an
+ * angle on a circle, and north never counts while the heading source reports unreliable accuracy.
+ *
+ * All working buffers are allocated once, so feeding an event never touches the heap.
+ * The rotation math mirrors SensorManager.getRotationMatrix(), getRotationMatrixFromVector()
+ * and getOrientation(), kept here in plain Java so it can run (and be measured) off-device.
+ *
+ * Not thread-safe: feed it from a single thread. Timestamps are event times in nanoseconds.
+ */
+public class OrientationEngine {
+
+    public static final float FLAT_TOLERANCE_DEG = 10f;
+    public static final float NORTH_TOLERANCE_DEG = 15f;
+    /** Extra angle a flag needs to turn off again, so readings on the boundary don't flicker. */
+    public static final float HYSTERESIS_DEG = 3f;
+    /** How long a flag must hold before it counts. */
+    public static final long STABLE_WINDOW_MS = 300;
+    /** Time constant of the accelerometer / magnetometer low-pass filter. */
+    public static final long FILTER_TIME_CONSTANT_MS = 100;
+
+    /** Same values as SensorManager.SENSOR_STATUS_*. */
+    public static final int ACCURACY_NO_CONTACT = -1;
+    public static final int ACCURACY_UNRELIABLE = 0;
+    public static final int ACCURACY_LOW = 1;
+    public static final int ACCURACY_MEDIUM = 2;
+    public static final int ACCURACY_HIGH = 3;
+
+    /** Heap bytes a single sensor event may allocate. Enforced by OrientationEngineTest. */
+    public static final long ALLOCATION_BUDGET_BYTES_PER_EVENT = 0;
+
+    private static final float GRAVITY_EARTH = 9.80665f;
+    private static final float FREE_FALL_GRAVITY_SQUARED = 0.01f * GRAVITY_EARTH * GRAVITY_EARTH;
+
+    private static final int FLAT = 1;
+    private static final int NORTH = 1 << 1;
+    // Enough for the stable window at the fastest rate we register for
+    private static final int HISTORY_SIZE = 128;
+
+    // Preallocated buffers, reused for every event
+    private final float[] gravity = new float[3];
+    private final float[] geomagnetic = new float[3];
+    private final float[] rotation = new float[9];
+    private final float[] orientation = new float[3];
+    private final FlagHistory history = new FlagHistory(HISTORY_SIZE);
+
+    private boolean hasGravity = false;
+    private boolean hasGeomagnetic = false;
+    private long gravityNanos;
+    private long geomagneticNanos;
+    private boolean hasSample = false;
+    private long firstNanos;
+    private long lastNanos;
+
+    // Until the platform says otherwise, assume the heading is usable
+    private int headingAccuracy = ACCURACY_HIGH;
+
+    private float azimuth;
+    private float pitch;
+    private float roll;
+    private boolean flatNow = false;
+    private boolean northNow = false;
+
+    private final float flatToleranceDeg;
+    private final float northToleranceDeg;
+    private final float hysteresisDeg;
+    private final long stableWindowNanos;
+    private final long filterTimeConstantNanos;
+
+    public OrientationEngine() {
+        this(FLAT_TOLERANCE_DEG, NORTH_TOLERANCE_DEG);
+    }
+
+    /**
+     * @param flatToleranceDeg  max |pitch| and |roll| that still counts as flat
+     * @param northToleranceDeg max angle either side of north that still counts as pointing north
+     */
+    public OrientationEngine(float flatToleranceDeg, float northToleranceDeg) {
+        this(flatToleranceDeg, northToleranceDeg, HYSTERESIS_DEG, STABLE_WINDOW_MS, FILTER_TIME_CONSTANT_MS);
+    }
+
+    /**
+     * @param hysteresisDeg         extra angle beyond the tolerance before a flag turns off
+     * @param stableWindowMs        how long a flag must hold before it counts; 0 for immediately
+     * @param filterTimeConstantMs  accelerometer / magnetometer smoothing; 0 for raw samples
+     */
+    public OrientationEngine(float flatToleranceDeg, float northToleranceDeg, float hysteresisDeg,
+                             long stableWindowMs, long filterTimeConstantMs) {
+        this.flatToleranceDeg = flatToleranceDeg;
+        this.northToleranceDeg = northToleranceDeg;
+        this.hysteresisDeg = hysteresisDeg;
+        this.stableWindowNanos = stableWindowMs * 1_000_000;
+        this.filterTimeConstantNanos = filterTimeConstantMs * 1_000_000;
+    }
+
+    /**
+     * @return true if the orientation was recomputed from this sample
+     */
+    public boolean onAccelerometer(long nanos, float[] values) {
+        // Free fall: no usable gravity direction, keep the previous result
+        float normSq = values[0] * values[0] + values[1] * values[1] + values[2] * values[2];
+        if (normSq < FREE_FALL_GRAVITY_SQUARED) {
+            return false;
+        }
+        lowPass(gravity, values, hasGravity, nanos - gravityNanos);
+        gravityNanos = nanos;
+        hasGravity = true;
+        return updateFromPair(nanos);
+    }
+
+    /**
+     * @return true if the orientation was recomputed from this sample
+     */
+    public boolean onMagnetometer(long nanos, float[] values) {
+        lowPass(geomagnetic, values, hasGeomagnetic, nanos - geomagneticNanos);
+        geomagneticNanos = nanos;
+        hasGeomagnetic = true;
+        return updateFromPair(nanos);
+    }
+
+    /**
+     * A rotation-vector sample (x, y, z[, w]); already fused by the platform, so it is not filtered again.
+     *
+     * @return true if the orientation was recomputed from this sample
+     */
+    public boolean onRotationVector(long nanos, float[] values) {
+        computeRotationMatrixFromVector(rotation, values);
+        update(nanos);
+        return true;
+    }
+
+    /**
+     * Accuracy of whichever sensor provides the heading (magnetometer or rotation vector),
+     * one of the ACCURACY_* constants.
+     */
+    public void onHeadingAccuracy(int accuracy) {
+        headingAccuracy = accuracy;
+    }
+
+    public boolean isHeadingReliable() {
+        return headingAccuracy > ACCURACY_UNRELIABLE;
+    }
+
+    /**
+     * Forgets every sample, e.g. after the sensors were off for a while and the old readings no
+     * longer say anything about how long a flag has held. Heading accuracy is kept.
+     */
+    public void reset() {
+        history.clear();
+        hasGravity = false;
+        hasGeomagnetic = false;
+        hasSample = false;
+        flatNow = false;
+        northNow = false;
+    }
+
+    /** True once the samples since construction or {@link #reset()} span the stable window. */
+    public boolean isSettled() {
+        return hasSample && lastNanos - firstNanos >= stableWindowNanos;
+    }
+
+    /** Flat, and has been for the stable window as of the latest sample. */
+    public boolean isFlat() {
+        return history.heldFor(FLAT, lastNanos, stableWindowNanos);
+    }
+
+    /** Pointing north with a reliable heading, and has been for the stable window as of the latest sample. */
+    public boolean isPointingNorth() {
+        return history.heldFor(NORTH, lastNanos, stableWindowNanos);
+    }
+
+    /**
+     * The stable flags as of {@code nowNanos}, which may be later than the latest sample
+     * (the last reading is assumed to still hold).
+     */
+    public OrientationState getState(long nowNanos) {
+        return OrientationState.of(history.heldFor(FLAT, nowNanos, stableWindowNanos),
+                history.heldFor(NORTH, nowNanos, stableWindowNanos));
+    }
+
+    /** Azimuth in degrees, normalized to [0, 360). */
+    public float getAzimuth() {
+        return azimuth;
+    }
+
+    public float getPitch() {
+        return pitch;
+    }
+
+    public float getRoll() {
+        return roll;
+    }
+
+    /**
+     * Flat if pitch & roll are both within {@code toleranceDeg} of 0. One reading, no hysteresis.
+     */
+    public static boolean isFlat(float pitchDeg, float rollDeg, float toleranceDeg) {
+        return Math.max(Math.abs(pitchDeg), Math.abs(rollDeg)) < toleranceDeg;
+    }
+
+    /**
+     * Pointing north if the azimuth is within ±{@code toleranceDeg} of 0, across the 0/360 seam.
+     * One reading, no hysteresis.
+     */
+    public static boolean isPointingNorth(float azimuthDeg, float toleranceDeg) {
+        return angularDistance(azimuthDeg, 0f) < toleranceDeg;
+    }
+
+    /**
+     * Shortest angle between two headings in degrees, in [0, 180].
+     */
+    public static float angularDistance(float aDeg, float bDeg) {
+        float d = Math.abs(aDeg - bDeg) % 360f;
+        return d > 180f ? 360f - d : d;
+    }
+
+    private void lowPass(float[] filtered, float[] sample, boolean seeded, long dtNanos) {
+        float alpha = 1f;
+        if (seeded && filterTimeConstantNanos > 0 && dtNanos > 0) {
+            alpha = (float) dtNanos / (filterTimeConstantNanos + dtNanos);
+        } else if (seeded && filterTimeConstantNanos > 0) {
+            // Same or older timestamp (a batched sample): a small step
+            alpha = 0.1f;
+        }
+        filtered[0] += alpha * (sample[0] - filtered[0]);
+        filtered[1] += alpha * (sample[1] - filtered[1]);
+        filtered[2] += alpha * (sample[2] - filtered[2]);
+    }
+
+    private boolean updateFromPair(long nanos) {
+        if (!hasGravity || !hasGeomagnetic) {
+            return false;
+        }
+        if (!computeRotationMatrix(rotation, gravity, geomagnetic)) {
+            return false;
+        }
+        update(nanos);
+        return true;
+    }
+
+    private void update(long nanos) {
+        computeOrientation(rotation, orientation);
+
+        float azimuthDeg = (float) Math.toDegrees(orientation[0]);
+        pitch = (float) Math.toDegrees(orientation[1]);
+        roll  = (float) Math.toDegrees(orientation[2]);
+        azimuth = (azimuthDeg + 360) % 360;
+
+        flatNow = isFlat(pitch, roll, flatNow ? flatToleranceDeg + hysteresisDeg : flatToleranceDeg);
+        northNow = isPointingNorth(azimuth, northNow ? northToleranceDeg + hysteresisDeg : northToleranceDeg);
+
+        boolean north = northNow && isHeadingReliable();
+        history.add(nanos, (flatNow ? FLAT : 0) | (north ? NORTH : 0));
+        if (!hasSample) {
+            firstNanos = nanos;
+            hasSample = true;
+        }
+        lastNanos = nanos;
+    }
+
+    /**
+     * Same as SensorManager.getRotationMatrix(R, null, gravity, geomagnetic).
+     */
+    static boolean computeRotationMatrix(float[] R, float[] gravity, float[] geomagnetic) {
+        float Ax = gravity[0];
+        float Ay = gravity[1];
+        float Az = gravity[2];
+
+        final float normsqA = (Ax * Ax + Ay * Ay + Az * Az);
+        if (normsqA < FREE_FALL_GRAVITY_SQUARED) {
+            // gravity less than 10% of normal value
+            return false;
+        }
+
+        final float Ex = geomagnetic[0];
+        final float Ey = geomagnetic[1];
+        final float Ez = geomagnetic[2];
+        float Hx = Ey * Az - Ez * Ay;
+        float Hy = Ez * Ax - Ex * Az;
+        float Hz = Ex * Ay - Ey * Ax;
+        final float normH = (float) Math.sqrt(Hx * Hx + Hy * Hy + Hz * Hz);
+        if (normH < 0.1f) {
+            // device is close to free fall (or in space?), or close to magnetic north pole
+            return false;
+        }
+
+        final float invH = 1.0f / normH;
+        Hx *= invH;
+        Hy *= invH;
+        Hz *= invH;
+        final float invA = 1.0f / (float) Math.sqrt(normsqA);
+        Ax *= invA;
+        Ay *= invA;
+        Az *= invA;
+        final float Mx = Ay * Hz - Az * Hy;
+        final float My = Az * Hx - Ax * Hz;
+        final float Mz = Ax * Hy - Ay * Hx;
+
+        R[0] = Hx; R[1] = Hy; R[2] = Hz;
+        R[3] = Mx; R[4] = My; R[5] = Mz;
+        R[6] = Ax; R[7] = Ay; R[8] = Az;
+        return true;
+    }
+
+    /**
+     * Same as SensorManager.getOrientation(R, values) for a 3x3 matrix.
+     */
+    static void computeOrientation(float[] R, float[] values) {
+        values[0] = (float) Math.atan2(R[1], R[4]);
+        values[1] = (float) Math.asin(-R[7]);
+        values[2] = (float) Math.atan2(-R[6], R[8]);
+    }
+
+    /**
+     * Same as SensorManager.getRotationMatrixFromVector(R, rotationVector) for a 3x3 matrix.
+     */
+    static void computeRotationMatrixFromVector(float[] R, float[] rotationVector) {
+        float q1 = rotationVector[0];
+        float q2 = rotationVector[1];
+        float q3 = rotationVector[2];
+        float q0;
+        if (rotationVector.length >= 4 && !Float.isNaN(rotationVector[3])) {
+            q0 = rotationVector[3];
+        } else {
+            q0 = 1 - q1 * q1 - q2 * q2 - q3 * q3;
+            q0 = (q0 > 0) ? (float) Math.sqrt(q0) : 0;
+        }
+
+        float sqQ1 = 2 * q1 * q1;
+        float sqQ2 = 2 * q2 * q2;
+        float sqQ3 = 2 * q3 * q3;
+        float q1q2 = 2 * q1 * q2;
+        float q3q0 = 2 * q3 * q0;
+        float q1q3 = 2 * q1 * q3;
+        float q2q0 = 2 * q2 * q0;
+        float q2q3 = 2 * q2 * q3;
+        float q1q0 = 2 * q1 * q0;
+
+        R[0] = 1 - sqQ2 - sqQ3; R[1] = q1q2 - q3q0;     R[2] = q1q3 + q2q0;
+        R[3] = q1q2 + q3q0;     R[4] = 1 - sqQ1 - sqQ3; R[5] = q2q3 - q1q0;
+        R[6] = q1q3 - q2q0;     R[7] = q2q3 + q1q0;     R[8] = 1 - sqQ1 - sqQ2;
+    }
+}
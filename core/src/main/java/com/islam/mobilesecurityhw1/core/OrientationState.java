@@ -0,0 +1,38 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Immutable snapshot of the orientation flags, safe to hand from the sensor thread to the UI thread.
+ * There are only four possible values, so they are shared constants and publishing never allocates.
+ */
+public final class OrientationState {
+
+    /** Neither flat nor pointing north; also the state before any sensor data arrives. */
+    public static final OrientationState NONE = new OrientationState(false, false);
+
+    private static final OrientationState FLAT_NORTH = new OrientationState(true, true);
+    private static final OrientationState FLAT_ONLY = new OrientationState(true, false);
+    private static final OrientationState NORTH_ONLY = new OrientationState(false, true);
+
+    private final boolean flat;
+    private final boolean pointingNorth;
+
+    private OrientationState(boolean flat, boolean pointingNorth) {
+        this.flat = flat;
+        this.pointingNorth = pointingNorth;
+    }
+
+    public static OrientationState of(boolean flat, boolean pointingNorth) {
+        if (flat) {
+            return pointingNorth ? FLAT_NORTH : FLAT_ONLY;
+        }
+        return pointingNorth ? NORTH_ONLY : NONE;
+    }
+
+    public boolean isFlat() {
+        return flat;
+    }
+
+    public boolean isPointingNorth() {
+        return pointingNorth;
+    }
+}
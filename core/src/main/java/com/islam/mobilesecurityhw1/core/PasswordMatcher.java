@@ -0,0 +1,44 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Checks a typed password against prefix + sum of the battery level's digits.
+ *
+ * The expected password for every battery level (0-100) is built once up front. Matching reads
+ * the input {@link CharSequence} in place (no String copy of the secret), allocates nothing, and
+ * always walks the same number of characters, so its timing doesn't reveal how much of the input
+ * was right.
+ */
+public final class PasswordMatcher {
+
+    private static final int MAX_BATTERY_LEVEL = 100;
+
+    private final char[][] expected = new char[MAX_BATTERY_LEVEL + 1][];
+    private final int maxLength;
+
+    public PasswordMatcher(String prefix) {
+        int longest = 0;
+        for (int level = 0; level <= MAX_BATTERY_LEVEL; level++) {
+            expected[level] = (prefix + LoginPolicy.sumOfDigits(level)).toCharArray();
+            longest = Math.max(longest, expected[level].length);
+        }
+        maxLength = longest;
+    }
+
+    /**
+     * @param input        the typed password; only read, never copied
+     * @param batteryLevel 0-100; anything else never matches
+     */
+    public boolean matches(CharSequence input, int batteryLevel) {
+        if (batteryLevel < 0 || batteryLevel > MAX_BATTERY_LEVEL) return false;
+
+        char[] want = expected[batteryLevel];
+        int inputLength = input.length();
+        int diff = inputLength ^ want.length;
+        for (int i = 0; i < maxLength; i++) {
+            int have = i < inputLength ? input.charAt(i) : 0;
+            int need = i < want.length ? want[i] : 0;
+            diff |= have ^ need;
+        }
+        return diff == 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Which login conditions hold right now: location permission plus every check of a
+ * {@link LoginPolicy}. Immutable; compare two with {@link #changedMask} to redraw only what changed.
+ */
+public final class Readiness {
+
+    public static final String PERMISSION = "permission";
+
+    /** Every condition, in display order; bit i of a mask stands for entry i. */
+    public static final List<String> CONDITIONS;
+
+    static {
+        List<String> conditions = new ArrayList<>();
+        conditions.add(PERMISSION);
+        conditions.addAll(LoginPolicy.ALL_CHECKS);
+        CONDITIONS = Collections.unmodifiableList(conditions);
+    }
+
+    /** Nothing known to hold yet. */
+    public static final Readiness NONE = new Readiness(0);
+
+    private final int metMask;
+
+    private Readiness(int metMask) {
+        this.metMask = metMask;
+    }
+
+    /**
+     * Evaluates every check of {@code policy} against {@code in}. Checks the policy doesn't enforce
+     * count as met. Allocation-free apart from the result.
+     */
+    public static Readiness evaluate(LoginPolicy policy, boolean permissionGranted, LoginInputs in) {
+        int mask = permissionGranted ? 1 : 0;
+        for (int i = 1; i < CONDITIONS.size(); i++) {
+            String check = CONDITIONS.get(i);
+            if (!policy.getCheckOrder().contains(check) || policy.isMet(check, in)) {
+                mask |= 1 << i;
+            }
+        }
+        return mask == NONE.metMask ? NONE : new Readiness(mask);
+    }
+
+    /**
+     * This readiness with one condition set to {@code met} without re-evaluating everything else,
+     * e.g. to show the password as merely entered rather than judging its value.
+     */
+    public Readiness with(String condition, boolean met) {
+        int mask = met ? metMask | bit(condition) : metMask & ~bit(condition);
+        if (mask == metMask) return this;
+        return mask == NONE.metMask ? NONE : new Readiness(mask);
+    }
+
+    public boolean isMet(String condition) {
+        return (metMask & bit(condition)) != 0;
+    }
+
+    public boolean isAllMet() {
+        return metMask == (1 << CONDITIONS.size()) - 1;
+    }
+
+    /**
+     * Bits (see {@link #CONDITIONS}) whose status differs from {@code previous}.
+     */
+    public int changedMask(Readiness previous) {
+        return metMask ^ previous.metMask;
+    }
+
+    public static int bit(String condition) {
+        int index = CONDITIONS.indexOf(condition);
+        if (index < 0) throw new IllegalArgumentException("Unknown condition: " + condition);
+        return 1 << index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Readiness && ((Readiness) o).metMask == metMask;
+    }
+
+    @Override
+    public int hashCode() {
+        return metMask;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Readiness{");
+        for (int i = 0; i < CONDITIONS.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(CONDITIONS.get(i)).append('=').append((metMask & (1 << i)) != 0);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * Decides how hard the orientation sensors should run: not at all while nothing needs a reading,
+ * at the full rate while something does and the reading is still moving, and at a low rate once
+ * the reading has held for a while. Keeps the time spent in each mode so the savings can be read
+ * back from a dump.
+ *
+ * Demand comes from independent reasons (the password field has focus, a login is waiting for a
+ * reading, ...); the sensors are off only when none of them is set. Thread-safe; times are
+ * caller-supplied nanos on one clock.
+ */
+public final class SensorDutyCycle {
+
+    public enum Mode { OFF, LOW, FULL }
+
+    /** The password field has focus, so a login is likely soon. */
+    public static final int DEMAND_INPUT_FOCUS = 1;
+    /** A login attempt is waiting for, or evaluating, a reading. */
+    public static final int DEMAND_LOGIN_PENDING = 1 << 1;
+    /** Other components are bound to the readiness service and polling it. */
+    public static final int DEMAND_READINESS_CLIENTS = 1 << 2;
+
+    private final long stableNanos;
+    private final long[] nanosInMode = new long[Mode.values().length];
+
+    private int demand = 0;
+    private Mode mode = Mode.OFF;
+    private long modeSince;
+    private long lastChange;
+
+    /**
+     * @param stableNanos how long the reading must stay unchanged at the full rate before dropping to the low rate
+     */
+    public SensorDutyCycle(long stableNanos) {
+        if (stableNanos < 0) {
+            throw new IllegalArgumentException("stableNanos must not be negative");
+        }
+        this.stableNanos = stableNanos;
+    }
+
+    /**
+     * Sets or clears one demand reason.
+     *
+     * @return the mode to run the sensors in from now on
+     */
+    public synchronized Mode setDemand(int reason, boolean needed, long nowNanos) {
+        demand = needed ? demand | reason : demand & ~reason;
+        if (demand == 0) {
+            switchTo(Mode.OFF, nowNanos);
+        } else if (mode == Mode.OFF) {
+            lastChange = nowNanos;
+            switchTo(Mode.FULL, nowNanos);
+        }
+        return mode;
+    }
+
+    /**
+     * Reports one processed reading.
+     *
+     * @param changed whether it changed the published result
+     * @return the mode to run the sensors in from now on
+     */
+    public synchronized Mode onReading(boolean changed, long nowNanos) {
+        if (mode == Mode.OFF) return mode;
+        if (changed) {
+            lastChange = nowNanos;
+            switchTo(Mode.FULL, nowNanos);
+        } else if (mode == Mode.FULL && nowNanos - lastChange >= stableNanos) {
+            switchTo(Mode.LOW, nowNanos);
+        }
+        return mode;
+    }
+
+    /** Drops every demand reason, e.g. when the screen goes away. */
+    public synchronized void clear(long nowNanos) {
+        demand = 0;
+        switchTo(Mode.OFF, nowNanos);
+    }
+
+    public synchronized Mode getMode() {
+        return mode;
+    }
+
+    public synchronized int getDemand() {
+        return demand;
+    }
+
+    /** Total time spent in {@code m}, including the current stretch if it is the current mode. */
+    public synchronized long getNanosIn(Mode m, long nowNanos) {
+        long total = nanosInMode[m.ordinal()];
+        if (m == mode) total += nowNanos - modeSince;
+        return total;
+    }
+
+    /** Time the sensors were registered at any rate. */
+    public synchronized long getActiveNanos(long nowNanos) {
+        return getNanosIn(Mode.LOW, nowNanos) + getNanosIn(Mode.FULL, nowNanos);
+    }
+
+    private void switchTo(Mode next, long nowNanos) {
+        if (next == mode) return;
+        nanosInMode[mode.ordinal()] += nowNanos - modeSince;
+        mode = next;
+        modeSince = nowNanos;
+    }
+}
@@ -0,0 +1,79 @@
+package com.islam.mobilesecurityhw1.core;
+
+/**
+ * One continuously updated {@link Readiness} that any number of callers can poll.
+ *
+ * Whoever owns the device-state sources calls {@link #publish} when one of them changes; the
+ * policy is evaluated once per change and the result is handed out as an immutable
+ * {@link Snapshot} with a single volatile read.
+ *
+ * Device conditions only: there is deliberately no way to test a password here. Candidates go
+ * through the login screen, where every attempt is throttled and audited.
+ *
+ * Thread-safe: publishes are serialized, queries never block.
+ */
+public final class SharedReadiness {
+
+    /** The published state. Immutable. */
+    public static final class Snapshot {
+        static final Snapshot NONE = new Snapshot(0, Readiness.NONE, DeviceState.INITIAL);
+
+        private final long version;
+        private final Readiness readiness;
+        private final DeviceState deviceState;
+
+        private Snapshot(long version, Readiness readiness, DeviceState deviceState) {
+            this.version = version;
+            this.readiness = readiness;
+            this.deviceState = deviceState;
+        }
+
+        /** Increases with every publish that changed something; pollers can skip a version they've seen. */
+        public long getVersion() {
+            return version;
+        }
+
+        /** Every condition except the password, which counts as unmet unless the policy doesn't enforce it. */
+        public Readiness getReadiness() {
+            return readiness;
+        }
+
+        /** True if every condition but the password is met, i.e. a login with the right password would pass. */
+        public boolean isDeviceReady() {
+            return readiness.with(LoginPolicy.CHECK_PASSWORD, true).isAllMet();
+        }
+
+        public DeviceState getDeviceState() {
+            return deviceState;
+        }
+    }
+
+    private final LoginPolicy policy;
+    private final boolean passwordEnforced;
+    private volatile Snapshot current = Snapshot.NONE;
+
+    public SharedReadiness(LoginPolicy policy) {
+        this.policy = policy;
+        this.passwordEnforced = policy.getCheckOrder().contains(LoginPolicy.CHECK_PASSWORD);
+    }
+
+    /**
+     * Re-evaluates the policy against the latest sources. The password in {@code inputs} is ignored.
+     *
+     * @return true if the snapshot changed
+     */
+    public synchronized boolean publish(boolean permissionGranted, LoginInputs inputs) {
+        Readiness readiness = Readiness.evaluate(policy, permissionGranted, inputs)
+                .with(LoginPolicy.CHECK_PASSWORD, !passwordEnforced);
+        Snapshot previous = current;
+        if (readiness.equals(previous.readiness) && inputs.getDeviceState() == previous.deviceState) {
+            return false;
+        }
+        current = new Snapshot(previous.version + 1, readiness, inputs.getDeviceState());
+        return true;
+    }
+
+    public Snapshot get() {
+        return current;
+    }
+}
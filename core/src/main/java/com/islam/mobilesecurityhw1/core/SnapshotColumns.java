@@ -0,0 +1,138 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Historical device snapshots stored column by column in primitive arrays, for
+ * {@link BulkPolicyEvaluator}. A row is one moment: battery, charging, WiFi, brightness,
+ * location (NaN when there was no fix) and raw orientation angles in degrees. Immutable.
+ */
+public final class SnapshotColumns {
+
+    /** Header of the CSV form read by {@link #readCsv}. */
+    public static final String CSV_HEADER = "battery,charging,wifi,brightness,lat,lng,pitch,roll,azimuth";
+
+    final int size;
+    final int[] batteryLevel;
+    final boolean[] charging;
+    final boolean[] wifiConnected;
+    final int[] brightness;
+    final double[] latitude;
+    final double[] longitude;
+    final float[] pitch;
+    final float[] roll;
+    final float[] azimuth;
+
+    private SnapshotColumns(Builder b) {
+        size = b.size;
+        batteryLevel = Arrays.copyOf(b.batteryLevel, size);
+        charging = Arrays.copyOf(b.charging, size);
+        wifiConnected = Arrays.copyOf(b.wifiConnected, size);
+        brightness = Arrays.copyOf(b.brightness, size);
+        latitude = Arrays.copyOf(b.latitude, size);
+        longitude = Arrays.copyOf(b.longitude, size);
+        pitch = Arrays.copyOf(b.pitch, size);
+        roll = Arrays.copyOf(b.roll, size);
+        azimuth = Arrays.copyOf(b.azimuth, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Reads rows in {@link #CSV_HEADER} order, header line first. Booleans are true/false or 1/0;
+     * an empty lat/lng means no fix.
+     *
+     * @throws IllegalArgumentException on a wrong header or a malformed row, naming the line
+     */
+    public static SnapshotColumns readCsv(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null || !CSV_HEADER.equals(header.trim())) {
+            throw new IllegalArgumentException("Expected header: " + CSV_HEADER);
+        }
+
+        Builder builder = new Builder();
+        int lineNumber = 1;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.trim().isEmpty()) continue;
+            String[] f = line.split(",", -1);
+            if (f.length != 9) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected 9 fields, got " + f.length);
+            }
+            try {
+                builder.add(Integer.parseInt(f[0].trim()), parseBoolean(f[1]), parseBoolean(f[2]),
+                        Integer.parseInt(f[3].trim()), parseCoordinate(f[4]), parseCoordinate(f[5]),
+                        Float.parseFloat(f[6].trim()), Float.parseFloat(f[7].trim()), Float.parseFloat(f[8].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean parseBoolean(String field) {
+        String s = field.trim();
+        if (s.equals("1") || s.equalsIgnoreCase("true")) return true;
+        if (s.equals("0") || s.equalsIgnoreCase("false")) return false;
+        throw new NumberFormatException("not a boolean: " + field);
+    }
+
+    private static double parseCoordinate(String field) {
+        String s = field.trim();
+        return s.isEmpty() ? Double.NaN : Double.parseDouble(s);
+    }
+
+    public static final class Builder {
+        private int[] batteryLevel = new int[1024];
+        private boolean[] charging = new boolean[1024];
+        private boolean[] wifiConnected = new boolean[1024];
+        private int[] brightness = new int[1024];
+        private double[] latitude = new double[1024];
+        private double[] longitude = new double[1024];
+        private float[] pitch = new float[1024];
+        private float[] roll = new float[1024];
+        private float[] azimuth = new float[1024];
+        private int size;
+
+        /**
+         * @param latitude  NaN when there was no fix (longitude is then ignored)
+         * @param azimuthDeg degrees clockwise from north
+         */
+        public Builder add(int batteryLevel, boolean charging, boolean wifiConnected, int brightness,
+                           double latitude, double longitude, float pitchDeg, float rollDeg, float azimuthDeg) {
+            if (size == this.batteryLevel.length) grow();
+            this.batteryLevel[size] = batteryLevel;
+            this.charging[size] = charging;
+            this.wifiConnected[size] = wifiConnected;
+            this.brightness[size] = brightness;
+            this.latitude[size] = latitude;
+            this.longitude[size] = longitude;
+            this.pitch[size] = pitchDeg;
+            this.roll[size] = rollDeg;
+            this.azimuth[size] = azimuthDeg;
+            size++;
+            return this;
+        }
+
+        public SnapshotColumns build() {
+            return new SnapshotColumns(this);
+        }
+
+        private void grow() {
+            int capacity = size * 2;
+            batteryLevel = Arrays.copyOf(batteryLevel, capacity);
+            charging = Arrays.copyOf(charging, capacity);
+            wifiConnected = Arrays.copyOf(wifiConnected, capacity);
+            brightness = Arrays.copyOf(brightness, capacity);
+            latitude = Arrays.copyOf(latitude, capacity);
+            longitude = Arrays.copyOf(longitude, capacity);
+            pitch = Arrays.copyOf(pitch, capacity);
+            roll = Arrays.copyOf(roll, capacity);
+            azimuth = Arrays.copyOf(azimuth, capacity);
+        }
+    }
+}
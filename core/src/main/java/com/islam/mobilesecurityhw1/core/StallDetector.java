@@ -0,0 +1,179 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the messages a looper dispatches and keeps the ones over budget in a bounded ring,
+ * together with the named steps (e.g. "attemptLogin") that ran during them.
+ *
+ * {@link #begin}, {@link #step} and {@link #end} are called on the looper's own thread and don't
+ * allocate unless a stall is recorded; reading the ring is safe from any thread.
+ */
+public final class StallDetector {
+
+    /** One dispatch that went over budget. Immutable. */
+    public static final class Stall {
+        private final long wallTimeMs;
+        private final long durationNanos;
+        private final String steps;
+        private final String dispatch;
+
+        Stall(long wallTimeMs, long durationNanos, String steps, String dispatch) {
+            this.wallTimeMs = wallTimeMs;
+            this.durationNanos = durationNanos;
+            this.steps = steps;
+            this.dispatch = dispatch;
+        }
+
+        /** When the dispatch ended, {@link System#currentTimeMillis()}. */
+        public long getWallTimeMs() {
+            return wallTimeMs;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /** Steps entered during the dispatch, in order, e.g. "attemptLogin > evaluateLogin"; empty if none. */
+        public String getSteps() {
+            return steps;
+        }
+
+        /** What the looper reported it was dispatching (handler, callback, what). */
+        public String getDispatch() {
+            return dispatch;
+        }
+
+        @Override
+        public String toString() {
+            return TimeUnit.NANOSECONDS.toMillis(durationNanos) + " ms"
+                    + (steps.isEmpty() ? "" : " in " + steps) + ": " + dispatch;
+        }
+    }
+
+    // Further steps of the same dispatch are counted but not named
+    private static final int MAX_STEPS = 4;
+
+    private final long budgetNanos;
+
+    // Current dispatch, looper thread only
+    private final String[] steps = new String[MAX_STEPS];
+    private int stepCount = 0;
+    private boolean inDispatch = false;
+    private long startNanos;
+    private String dispatch;
+
+    // Ring of the latest stalls
+    private final Stall[] ring;
+    private int next = 0;
+    private int size = 0;
+    private long dispatchCount = 0;
+    private long stallCount = 0;
+    private long maxNanos = 0;
+
+    /**
+     * @param budgetNanos dispatches taking longer than this are recorded
+     * @param capacity    how many of the latest stalls to keep
+     */
+    public StallDetector(long budgetNanos, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.budgetNanos = budgetNanos;
+        this.ring = new Stall[capacity];
+    }
+
+    /**
+     * A dispatch starts. {@code dispatch} describes it and is kept only if it stalls.
+     */
+    public void begin(long nowNanos, String dispatch) {
+        this.startNanos = nowNanos;
+        this.dispatch = dispatch;
+        this.stepCount = 0;
+        this.inDispatch = true;
+    }
+
+    /**
+     * Names a step running in the current dispatch.
+     */
+    public void step(String name) {
+        if (!inDispatch) return;
+        if (stepCount < MAX_STEPS) steps[stepCount] = name;
+        stepCount++;
+    }
+
+    /**
+     * The dispatch started by {@link #begin} has finished.
+     *
+     * @return the recorded stall, or null if it was within budget (or no dispatch was running)
+     */
+    public Stall end(long nowNanos, long wallTimeMs) {
+        if (!inDispatch) return null;
+        inDispatch = false;
+        long duration = nowNanos - startNanos;
+
+        synchronized (this) {
+            dispatchCount++;
+            maxNanos = Math.max(maxNanos, duration);
+            if (duration <= budgetNanos) return null;
+
+            Stall stall = new Stall(wallTimeMs, duration, joinSteps(), dispatch);
+            ring[next] = stall;
+            next = (next + 1) % ring.length;
+            if (size < ring.length) size++;
+            stallCount++;
+            return stall;
+        }
+    }
+
+    /** The kept stalls, oldest first. */
+    public synchronized List<Stall> getStalls() {
+        List<Stall> stalls = new ArrayList<>(size);
+        for (int k = size; k > 0; k--) {
+            stalls.add(ring[(next - k + ring.length) % ring.length]);
+        }
+        return stalls;
+    }
+
+    public synchronized long getDispatchCount() {
+        return dispatchCount;
+    }
+
+    /** Every stall seen, including those that have since dropped out of the ring. */
+    public synchronized long getStallCount() {
+        return stallCount;
+    }
+
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Summary line followed by the kept stalls, one per line.
+     */
+    public synchronized String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(stallCount).append(" of ").append(dispatchCount).append(" dispatches over ")
+                .append(TimeUnit.NANOSECONDS.toMillis(budgetNanos)).append(" ms, max ")
+                .append(TimeUnit.NANOSECONDS.toMillis(maxNanos)).append(" ms\n");
+        for (Stall stall : getStalls()) {
+            sb.append("  ").append(stall).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private String joinSteps() {
+        if (stepCount == 0) return "";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(stepCount, MAX_STEPS); i++) {
+            if (i > 0) sb.append(" > ");
+            sb.append(steps[i]);
+        }
+        if (stepCount > MAX_STEPS) {
+            sb.append(" (+").append(stepCount - MAX_STEPS).append(')');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start milestones of the login screen, measured from onCreate: first frame on screen,
+ * then login-ready (sensors, device state and location access set up, so a tap can be served).
+ *
+ * Each milestone is kept only the first time it is reached and is also recorded into the
+ * installed {@link CheckMetrics}. Call from one thread (the main thread).
+ */
+public final class StartupTimings {
+
+    public static final String FIRST_FRAME = "startup_first_frame";
+    public static final String LOGIN_READY = "startup_login_ready";
+
+    private static final long NOT_REACHED = -1;
+
+    private final long createNanos;
+    private long firstFrameNanos = NOT_REACHED;
+    private long loginReadyNanos = NOT_REACHED;
+
+    /**
+     * @param createNanos {@link System#nanoTime()} at the start of onCreate
+     */
+    public StartupTimings(long createNanos) {
+        this.createNanos = createNanos;
+    }
+
+    /**
+     * @return true the first time only
+     */
+    public boolean markFirstFrame(long nowNanos) {
+        if (firstFrameNanos != NOT_REACHED) return false;
+        firstFrameNanos = nowNanos;
+        CheckMetrics.get().record(FIRST_FRAME, nowNanos - createNanos, true);
+        return true;
+    }
+
+    /**
+     * @return true the first time only
+     */
+    public boolean markLoginReady(long nowNanos) {
+        if (loginReadyNanos != NOT_REACHED) return false;
+        loginReadyNanos = nowNanos;
+        CheckMetrics.get().record(LOGIN_READY, nowNanos - createNanos, true);
+        return true;
+    }
+
+    public boolean isFirstFrameDrawn() {
+        return firstFrameNanos != NOT_REACHED;
+    }
+
+    public boolean isLoginReady() {
+        return loginReadyNanos != NOT_REACHED;
+    }
+
+    /** onCreate to first frame in ms, or -1 if not drawn yet. */
+    public long getTimeToFirstFrameMs() {
+        return elapsedMs(firstFrameNanos);
+    }
+
+    /** onCreate to login-ready in ms, or -1 if not ready yet. */
+    public long getTimeToLoginReadyMs() {
+        return elapsedMs(loginReadyNanos);
+    }
+
+    /**
+     * False if a milestone was reached later than its budget; milestones not reached yet don't count.
+     */
+    public boolean isWithinBudget(long firstFrameBudgetMs, long loginReadyBudgetMs) {
+        return getTimeToFirstFrameMs() <= firstFrameBudgetMs && getTimeToLoginReadyMs() <= loginReadyBudgetMs;
+    }
+
+    @Override
+    public String toString() {
+        return "first frame " + format(getTimeToFirstFrameMs()) + ", login-ready " + format(getTimeToLoginReadyMs());
+    }
+
+    private long elapsedMs(long markNanos) {
+        return markNanos == NOT_REACHED ? NOT_REACHED : TimeUnit.NANOSECONDS.toMillis(markNanos - createNanos);
+    }
+
+    private static String format(long ms) {
+        return ms == NOT_REACHED ? "pending" : ms + " ms";
+    }
+}
@@ -0,0 +1,59 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket: up to {@code capacity} acquisitions in a burst, then one per refill interval.
+ *
+ * Instead of a token count it keeps the time at which the bucket will be full again, so an
+ * acquisition is a single compare-and-set and refilling needs no timer. Times are caller-supplied
+ * nanos, e.g. {@link System#nanoTime()}.
+ */
+public final class TokenBucket {
+
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    // Bucket is full at or before this time; starts full
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE / 2);
+    private final AtomicLong blockedUntil = new AtomicLong(Long.MIN_VALUE / 2);
+
+    public TokenBucket(int capacity, long refillIntervalNanos) {
+        if (capacity < 1 || refillIntervalNanos <= 0) {
+            throw new IllegalArgumentException("capacity and refill interval must be positive");
+        }
+        this.refillIntervalNanos = refillIntervalNanos;
+        this.burstNanos = capacity * refillIntervalNanos;
+    }
+
+    /**
+     * Takes one token if there is one.
+     */
+    public boolean tryAcquire(long nowNanos) {
+        if (nowNanos - blockedUntil.get() < 0) return false;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + refillIntervalNanos;
+            if (next - nowNanos > burstNanos) return false;
+            if (fullAt.compareAndSet(current, next)) return true;
+        }
+    }
+
+    /**
+     * Refuses every acquisition before {@code untilNanos}; an earlier block is never shortened.
+     */
+    public void blockUntil(long untilNanos) {
+        while (true) {
+            long current = blockedUntil.get();
+            if (untilNanos - current <= 0 || blockedUntil.compareAndSet(current, untilNanos)) return;
+        }
+    }
+
+    /**
+     * How long until {@link #tryAcquire} can succeed again, 0 if it can now.
+     */
+    public long nanosUntilAvailable(long nowNanos) {
+        long untilToken = fullAt.get() + refillIntervalNanos - burstNanos - nowNanos;
+        long untilUnblocked = blockedUntil.get() - nowNanos;
+        return Math.max(0, Math.max(untilToken, untilUnblocked));
+    }
+}
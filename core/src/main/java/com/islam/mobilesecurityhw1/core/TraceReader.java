@@ -0,0 +1,131 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams a trace written by {@link TraceWriter} into a {@link Visitor}, one callback per record.
+ * Sample values are handed over in a reused array, so reading allocates nothing per record.
+ */
+public final class TraceReader {
+
+    /** Receives the records of a trace in file order. Timestamps are absolute, in the writer's time base. */
+    public interface Visitor {
+        /** {@code values} is reused for the next sample; copy it to keep it. */
+        void onAccelerometer(long nanos, float[] values);
+
+        void onMagnetometer(long nanos, float[] values);
+
+        /** {@code values} holds x, y, z, w (w may be NaN) and is reused like the others. */
+        void onRotationVector(long nanos, float[] values);
+
+        void onHeadingAccuracy(long nanos, int accuracy);
+
+        void onLocation(long nanos, double latitude, double longitude, float accuracyMeters);
+
+        void onBattery(long nanos, int level, boolean charging);
+
+        void onWifi(long nanos, boolean connected);
+
+        void onBrightness(long nanos, int brightness);
+
+        void onLoginAttempt(long nanos);
+    }
+
+    private TraceReader() {
+    }
+
+    /**
+     * Reads {@code in} to the end. A trace cut off mid-record (e.g. the app was killed while
+     * recording) ends at the last complete record.
+     *
+     * @return the number of records delivered
+     * @throws IOException if the stream is not a trace, or on read errors
+     */
+    public static int read(InputStream in, Visitor visitor) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != TraceWriter.MAGIC) {
+            throw new IOException("Not a trace file");
+        }
+        int version = data.readUnsignedByte();
+        if (version < TraceWriter.OLDEST_READABLE_VERSION || version > TraceWriter.VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+
+        float[] values = new float[3];
+        float[] rotationVector = new float[4];
+        long nanos = 0;
+        int count = 0;
+        while (true) {
+            int type = data.read();
+            if (type < 0) return count;
+            try {
+                long zigzag = readVarLong(data);
+                nanos += (zigzag >>> 1) ^ -(zigzag & 1);
+                readRecord(data, type, nanos, values, rotationVector, visitor);
+            } catch (EOFException truncated) {
+                return count;
+            }
+            count++;
+        }
+    }
+
+    private static void readRecord(DataInputStream data, int type, long nanos, float[] values,
+                                   float[] rotationVector, Visitor visitor) throws IOException {
+        switch (type) {
+            case TraceWriter.ACCELEROMETER:
+            case TraceWriter.MAGNETOMETER:
+                values[0] = data.readFloat();
+                values[1] = data.readFloat();
+                values[2] = data.readFloat();
+                if (type == TraceWriter.ACCELEROMETER) {
+                    visitor.onAccelerometer(nanos, values);
+                } else {
+                    visitor.onMagnetometer(nanos, values);
+                }
+                break;
+            case TraceWriter.ROTATION_VECTOR:
+                rotationVector[0] = data.readFloat();
+                rotationVector[1] = data.readFloat();
+                rotationVector[2] = data.readFloat();
+                rotationVector[3] = data.readFloat();
+                visitor.onRotationVector(nanos, rotationVector);
+                break;
+            case TraceWriter.HEADING_ACCURACY:
+                visitor.onHeadingAccuracy(nanos, data.readByte());
+                break;
+            case TraceWriter.LOCATION:
+                double latitude = data.readDouble();
+                double longitude = data.readDouble();
+                visitor.onLocation(nanos, latitude, longitude, data.readFloat());
+                break;
+            case TraceWriter.BATTERY:
+                int level = data.readByte();
+                visitor.onBattery(nanos, level, data.readBoolean());
+                break;
+            case TraceWriter.WIFI:
+                visitor.onWifi(nanos, data.readBoolean());
+                break;
+            case TraceWriter.BRIGHTNESS:
+                visitor.onBrightness(nanos, data.readShort());
+                break;
+            case TraceWriter.LOGIN_ATTEMPT:
+                visitor.onLoginAttempt(nanos);
+                break;
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    private static long readVarLong(DataInputStream data) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
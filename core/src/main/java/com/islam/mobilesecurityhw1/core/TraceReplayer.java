@@ -0,0 +1,154 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs a recorded trace through the app's own decision code, as fast as the JVM allows:
+ * sensor samples go through an {@link OrientationEngine}, device changes build up a
+ * {@link DeviceState}, fixes are gated by a {@link LocationPolicy}, and every recorded login
+ * attempt is evaluated by the {@link LoginPolicy}.
+ *
+ * Passwords are not part of a trace, so the caller supplies one per attempt.
+ * Not thread-safe; use one replayer per trace.
+ */
+public final class TraceReplayer implements TraceReader.Visitor {
+
+    /** Sees every replayed attempt. */
+    public interface Listener {
+        /**
+         * @param failedCheck the check that would have been reported, or null if login succeeded
+         */
+        void onAttempt(long nanos, LoginInputs inputs, LoginCheck failedCheck);
+    }
+
+    private final LoginPolicy loginPolicy;
+    private final LocationPolicy locationPolicy;
+    private final Function<DeviceState, CharSequence> passwords;
+    private final Listener listener;
+    private final OrientationEngine orientationEngine;
+
+    private DeviceState deviceState = DeviceState.INITIAL;
+    private boolean hasFix = false;
+    private long fixNanos;
+    private double latitude;
+    private double longitude;
+    private float accuracyMeters;
+
+    private int attempts = 0;
+    private final Map<String, Integer> failures = new TreeMap<>();
+
+    /**
+     * @param passwords what the user typed at each attempt, given the device state at that moment
+     * @param listener  may be null
+     */
+    public TraceReplayer(LoginPolicy loginPolicy, LocationPolicy locationPolicy,
+                         Function<DeviceState, CharSequence> passwords, Listener listener) {
+        this.loginPolicy = loginPolicy;
+        this.locationPolicy = locationPolicy;
+        this.passwords = passwords;
+        this.listener = listener;
+        this.orientationEngine = new OrientationEngine(loginPolicy.getFlatToleranceDeg(), loginPolicy.getNorthToleranceDeg());
+    }
+
+    /**
+     * Replays a whole trace into this replayer.
+     *
+     * @return the number of records replayed
+     */
+    public int replay(InputStream trace) throws IOException {
+        return TraceReader.read(trace, this);
+    }
+
+    public int getAttemptCount() {
+        return attempts;
+    }
+
+    public int getSuccessCount() {
+        int failed = 0;
+        for (int count : failures.values()) {
+            failed += count;
+        }
+        return attempts - failed;
+    }
+
+    /** Reported failures per check name, sorted by name. */
+    public Map<String, Integer> getFailureCounts() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    // ===== TraceReader.Visitor =====
+
+    @Override
+    public void onAccelerometer(long nanos, float[] values) {
+        orientationEngine.onAccelerometer(nanos, values);
+    }
+
+    @Override
+    public void onMagnetometer(long nanos, float[] values) {
+        orientationEngine.onMagnetometer(nanos, values);
+    }
+
+    @Override
+    public void onRotationVector(long nanos, float[] values) {
+        orientationEngine.onRotationVector(nanos, values);
+    }
+
+    @Override
+    public void onHeadingAccuracy(long nanos, int accuracy) {
+        orientationEngine.onHeadingAccuracy(accuracy);
+    }
+
+    @Override
+    public void onLocation(long nanos, double latitude, double longitude, float accuracyMeters) {
+        this.hasFix = true;
+        this.fixNanos = nanos;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.accuracyMeters = accuracyMeters;
+    }
+
+    @Override
+    public void onBattery(long nanos, int level, boolean charging) {
+        deviceState = deviceState.withBattery(level, charging);
+    }
+
+    @Override
+    public void onWifi(long nanos, boolean connected) {
+        deviceState = deviceState.withWifiConnected(connected);
+    }
+
+    @Override
+    public void onBrightness(long nanos, int brightness) {
+        deviceState = deviceState.withBrightness(brightness);
+    }
+
+    @Override
+    public void onLoginAttempt(long nanos) {
+        CharSequence password = passwords.apply(deviceState);
+        OrientationState orientation = orientationEngine.getState(nanos);
+        LoginInputs inputs = isFixAcceptable(nanos)
+                ? LoginSnapshot.withLocation(password, deviceState, orientation, latitude, longitude)
+                : LoginSnapshot.withoutLocation(password, deviceState, orientation);
+
+        LoginCheck failed = loginPolicy.firstFailure(inputs);
+        attempts++;
+        if (failed != null) {
+            failures.merge(failed.getName(), 1, Integer::sum);
+        }
+        if (listener != null) {
+            listener.onAttempt(nanos, inputs, failed);
+        }
+    }
+
+    private boolean isFixAcceptable(long nowNanos) {
+        if (!hasFix) return false;
+        long ageMs = TimeUnit.NANOSECONDS.toMillis(nowNanos - fixNanos);
+        return locationPolicy.isAcceptable(ageMs, !Float.isNaN(accuracyMeters), accuracyMeters);
+    }
+}
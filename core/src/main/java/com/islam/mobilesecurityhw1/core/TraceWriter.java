@@ -0,0 +1,147 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records a session's raw inputs (sensor samples, location fixes, battery / WiFi / brightness
+ * changes and login attempts) into a compact binary trace that {@link TraceReader} can replay.
+ *
+ * Layout: the magic "MSHT", a version byte, then one record per event: a type byte, the time
+ * since the previous record as a zigzag varint (ns; sources may be slightly out of order), then a
+ * fixed payload. Passwords are never written. All methods are synchronized, so events may come
+ * from several threads; the caller picks the time base (e.g. elapsedRealtimeNanos). Records that
+ * arrive after {@link #close()} are dropped, so a late event racing the close is not an error.
+ */
+public final class TraceWriter implements Closeable {
+
+    static final int MAGIC = 0x4D534854; // "MSHT"
+    // 2 added rotation-vector and heading-accuracy records
+    static final int VERSION = 2;
+    static final int OLDEST_READABLE_VERSION = 1;
+
+    static final int ACCELEROMETER = 1;
+    static final int MAGNETOMETER = 2;
+    static final int LOCATION = 3;
+    static final int BATTERY = 4;
+    static final int WIFI = 5;
+    static final int BRIGHTNESS = 6;
+    static final int LOGIN_ATTEMPT = 7;
+    static final int ROTATION_VECTOR = 8;
+    static final int HEADING_ACCURACY = 9;
+
+    private final DataOutputStream out;
+    private long lastNanos = 0;
+    private int recordCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Writes the header right away. Pass a buffered stream; the writer adds no buffering of its own.
+     */
+    public TraceWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    public synchronized void accelerometer(long nanos, float x, float y, float z) throws IOException {
+        if (closed) return;
+        sample(ACCELEROMETER, nanos, x, y, z);
+    }
+
+    public synchronized void magnetometer(long nanos, float x, float y, float z) throws IOException {
+        if (closed) return;
+        sample(MAGNETOMETER, nanos, x, y, z);
+    }
+
+    /**
+     * @param w the quaternion's scalar part, or NaN if the sensor doesn't report it
+     */
+    public synchronized void rotationVector(long nanos, float x, float y, float z, float w) throws IOException {
+        if (closed) return;
+        sample(ROTATION_VECTOR, nanos, x, y, z);
+        out.writeFloat(w);
+    }
+
+    /** One of the OrientationEngine.ACCURACY_* values. */
+    public synchronized void headingAccuracy(long nanos, int accuracy) throws IOException {
+        if (closed) return;
+        header(HEADING_ACCURACY, nanos);
+        out.writeByte(accuracy);
+    }
+
+    public synchronized void location(long nanos, double latitude, double longitude, float accuracyMeters)
+            throws IOException {
+        if (closed) return;
+        header(LOCATION, nanos);
+        out.writeDouble(latitude);
+        out.writeDouble(longitude);
+        out.writeFloat(accuracyMeters);
+    }
+
+    public synchronized void battery(long nanos, int level, boolean charging) throws IOException {
+        if (closed) return;
+        header(BATTERY, nanos);
+        out.writeByte(level); // 0-100, or UNKNOWN (-1)
+        out.writeBoolean(charging);
+    }
+
+    public synchronized void wifi(long nanos, boolean connected) throws IOException {
+        if (closed) return;
+        header(WIFI, nanos);
+        out.writeBoolean(connected);
+    }
+
+    public synchronized void brightness(long nanos, int brightness) throws IOException {
+        if (closed) return;
+        header(BRIGHTNESS, nanos);
+        out.writeShort(brightness); // 0-255, or UNKNOWN (-1)
+    }
+
+    /** The user tapped login; replay evaluates the policy against the state at this point. */
+    public synchronized void loginAttempt(long nanos) throws IOException {
+        if (closed) return;
+        header(LOGIN_ATTEMPT, nanos);
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    public synchronized void flush() throws IOException {
+        if (!closed) out.flush();
+    }
+
+    /** Waits for a record being written, then flushes and closes the stream. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        out.close();
+    }
+
+    private void sample(int type, long nanos, float x, float y, float z) throws IOException {
+        header(type, nanos);
+        out.writeFloat(x);
+        out.writeFloat(y);
+        out.writeFloat(z);
+    }
+
+    private void header(int type, long nanos) throws IOException {
+        out.writeByte(type);
+        long delta = nanos - lastNanos;
+        lastNanos = nanos;
+        writeVarLong((delta << 1) ^ (delta >> 63));
+        recordCount++;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
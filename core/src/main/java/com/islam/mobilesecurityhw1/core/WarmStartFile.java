@@ -0,0 +1,61 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@link WarmStartSnapshot} kept in a memory-mapped file. Reading at startup is a checksum over
+ * {@value WarmStartSnapshot#SIZE} bytes already in the page cache, and saving is a memory write
+ * that the kernel flushes on its own (it survives the process being killed, not a power loss).
+ *
+ * Thread-safe.
+ */
+public final class WarmStartFile implements Closeable {
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+
+    private WarmStartFile(RandomAccessFile file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps {@code path}, creating it (and its directory) if needed.
+     */
+    public static WarmStartFile open(File path) throws IOException {
+        File dir = path.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, WarmStartSnapshot.SIZE);
+            return new WarmStartFile(file, buffer);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the saved snapshot, or null if there is none (first run, torn write, other version)
+     */
+    public synchronized WarmStartSnapshot read() {
+        return WarmStartSnapshot.readFrom(buffer);
+    }
+
+    public synchronized void write(WarmStartSnapshot snapshot) {
+        snapshot.writeTo(buffer);
+    }
+
+    /** The mapping itself stays valid until garbage-collected. */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
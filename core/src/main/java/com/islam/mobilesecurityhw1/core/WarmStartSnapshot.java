@@ -0,0 +1,201 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+
+/**
+ * What a cold start can reuse from the previous run: the last accepted location fix, the
+ * permission / settings outcome and the last stable orientation, each with its wall-clock time
+ * so the reader can decide what is still fresh enough.
+ *
+ * Stored in a fixed {@value #SIZE}-byte little-endian layout ending in a CRC32, so a torn or
+ * foreign file reads as "no snapshot" rather than as garbage. Immutable; see {@link WarmStartFile}.
+ */
+public final class WarmStartSnapshot {
+
+    public static final int SIZE = 64;
+
+    private static final int MAGIC = 0x5357534D; // "MSWS" little-endian
+    private static final int VERSION = 1;
+
+    // Layout; 8-byte fields are 8-byte aligned
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_SAVED_AT = 8;
+    private static final int OFF_FIX_TIME = 16;
+    private static final int OFF_LATITUDE = 24;
+    private static final int OFF_LONGITUDE = 32;
+    private static final int OFF_ACCURACY = 40;
+    private static final int OFF_FLAGS = 44;
+    private static final int OFF_ORIENTATION_TIME = 48;
+    private static final int OFF_CRC = 56;
+
+    private static final int HAS_FIX = 1;
+    private static final int PERMISSION_GRANTED = 1 << 1;
+    private static final int PERMISSION_REQUESTED = 1 << 2;
+    private static final int SETTINGS_SATISFIED = 1 << 3;
+    private static final int HAS_ORIENTATION = 1 << 4;
+    private static final int FLAT = 1 << 5;
+    private static final int NORTH = 1 << 6;
+
+    private final long savedAtMs;
+    private final long fixTimeMs;
+    private final double latitude;
+    private final double longitude;
+    private final float accuracyMeters;
+    private final int flags;
+    private final long orientationTimeMs;
+
+    private WarmStartSnapshot(long savedAtMs, long fixTimeMs, double latitude, double longitude,
+                              float accuracyMeters, int flags, long orientationTimeMs) {
+        this.savedAtMs = savedAtMs;
+        this.fixTimeMs = fixTimeMs;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.accuracyMeters = accuracyMeters;
+        this.flags = flags;
+        this.orientationTimeMs = orientationTimeMs;
+    }
+
+    /**
+     * Decodes {@code SIZE} bytes at {@code buffer}'s position, which is left unchanged.
+     *
+     * @return null if the bytes don't hold a complete snapshot of this version
+     */
+    public static WarmStartSnapshot readFrom(ByteBuffer buffer) {
+        if (buffer.remaining() < SIZE) return null;
+        ByteBuffer b = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (b.getInt(OFF_MAGIC) != MAGIC || b.getInt(OFF_VERSION) != VERSION) return null;
+        if (b.getInt(OFF_CRC) != crc(b)) return null;
+
+        return new WarmStartSnapshot(b.getLong(OFF_SAVED_AT), b.getLong(OFF_FIX_TIME),
+                b.getDouble(OFF_LATITUDE), b.getDouble(OFF_LONGITUDE), b.getFloat(OFF_ACCURACY),
+                b.getInt(OFF_FLAGS), b.getLong(OFF_ORIENTATION_TIME));
+    }
+
+    /**
+     * Encodes into {@code SIZE} bytes at {@code buffer}'s position, which is left unchanged.
+     * The checksum goes in last, so a write cut short reads back as no snapshot.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        ByteBuffer b = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(OFF_CRC, 0);
+        b.putInt(OFF_MAGIC, MAGIC);
+        b.putInt(OFF_VERSION, VERSION);
+        b.putLong(OFF_SAVED_AT, savedAtMs);
+        b.putLong(OFF_FIX_TIME, fixTimeMs);
+        b.putDouble(OFF_LATITUDE, latitude);
+        b.putDouble(OFF_LONGITUDE, longitude);
+        b.putFloat(OFF_ACCURACY, accuracyMeters);
+        b.putInt(OFF_FLAGS, flags);
+        b.putLong(OFF_ORIENTATION_TIME, orientationTimeMs);
+        b.putInt(OFF_CRC, crc(b));
+    }
+
+    public long getSavedAtMs() {
+        return savedAtMs;
+    }
+
+    public boolean hasFix() {
+        return (flags & HAS_FIX) != 0;
+    }
+
+    /** Wall-clock time of the fix. */
+    public long getFixTimeMs() {
+        return fixTimeMs;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public float getAccuracyMeters() {
+        return accuracyMeters;
+    }
+
+    public boolean isPermissionGranted() {
+        return (flags & PERMISSION_GRANTED) != 0;
+    }
+
+    /** The one-time silent permission request was already made. */
+    public boolean isPermissionRequested() {
+        return (flags & PERMISSION_REQUESTED) != 0;
+    }
+
+    public boolean isSettingsSatisfied() {
+        return (flags & SETTINGS_SATISFIED) != 0;
+    }
+
+    public boolean hasOrientation() {
+        return (flags & HAS_ORIENTATION) != 0;
+    }
+
+    /** The last stable orientation, or {@link OrientationState#NONE} if there was none. */
+    public OrientationState getOrientation() {
+        return OrientationState.of((flags & FLAT) != 0, (flags & NORTH) != 0);
+    }
+
+    /** Wall-clock time the orientation was last known to hold. */
+    public long getOrientationTimeMs() {
+        return orientationTimeMs;
+    }
+
+    private static int crc(ByteBuffer b) {
+        CRC32 crc = new CRC32();
+        ByteBuffer covered = b.duplicate();
+        covered.position(0).limit(OFF_CRC);
+        crc.update(covered);
+        return (int) crc.getValue();
+    }
+
+    public static final class Builder {
+        private long fixTimeMs;
+        private double latitude;
+        private double longitude;
+        private float accuracyMeters;
+        private long orientationTimeMs;
+        private int flags;
+
+        public Builder fix(double latitude, double longitude, float accuracyMeters, long fixTimeMs) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.accuracyMeters = accuracyMeters;
+            this.fixTimeMs = fixTimeMs;
+            flags |= HAS_FIX;
+            return this;
+        }
+
+        public Builder permission(boolean granted, boolean requested) {
+            flags = set(flags, PERMISSION_GRANTED, granted);
+            flags = set(flags, PERMISSION_REQUESTED, requested);
+            return this;
+        }
+
+        public Builder settingsSatisfied(boolean satisfied) {
+            flags = set(flags, SETTINGS_SATISFIED, satisfied);
+            return this;
+        }
+
+        public Builder orientation(OrientationState orientation, long timeMs) {
+            flags |= HAS_ORIENTATION;
+            flags = set(flags, FLAT, orientation.isFlat());
+            flags = set(flags, NORTH, orientation.isPointingNorth());
+            orientationTimeMs = timeMs;
+            return this;
+        }
+
+        public WarmStartSnapshot build(long savedAtMs) {
+            return new WarmStartSnapshot(savedAtMs, fixTimeMs, latitude, longitude, accuracyMeters,
+                    flags, orientationTimeMs);
+        }
+
+        private static int set(int flags, int bit, boolean on) {
+            return on ? flags | bit : flags & ~bit;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.islam.mobilesecurityhw1.core;
+
+import java.util.Arrays;
+
+/**
+ * Immutable grid index of circular login zones (center + radius in meters).
+ *
+ * Every zone is registered in each grid cell its bounding box touches, and cells are stored
+ * sorted in flat arrays. A lookup is one binary search for the cell followed by a bounding-box
+ * and equirectangular prefilter over the few zones in it; only the survivors get the exact
+ * haversine distance. Lookups don't allocate.
+ *
+ * Zones crossing the ±180° meridian are not supported.
+ */
+public final class ZoneIndex {
+
+    static final double EARTH_RADIUS_M = 6_371_008.8;
+    private static final double METERS_PER_DEG_LAT = Math.PI * EARTH_RADIUS_M / 180.0;
+
+    // Aim for roughly this many zone centers per cell; cell size adapts to the zone density
+    private static final int TARGET_ZONES_PER_CELL = 4;
+    private static final double MAX_CELL_DEG = 1.0;
+    private static final double MIN_CELL_DEG = 0.001;
+
+    // Cell coordinates are offset to be non-negative and packed as (lat << LNG_BITS | lng);
+    // a build-time pair is (cell << ZONE_BITS | zone) so a plain sort groups zones by cell.
+    private static final int LAT_BITS = 18;
+    private static final int LNG_BITS = 19;
+    private static final int ZONE_BITS = 26;
+    static final int MAX_ZONES = 1 << ZONE_BITS;
+
+    // Equirectangular error is far below 1% at login-zone scales; anything within this band gets the exact check
+    private static final double PREFILTER_SLACK = 1.01;
+
+    // Per-zone data, interleaved so a candidate costs one cache line: [lat, lng, radius, minLat, maxLat, minLng, maxLng, -]
+    private static final int STRIDE = 8;
+    private static final int LAT = 0, LNG = 1, RADIUS = 2, MIN_LAT = 3, MAX_LAT = 4, MIN_LNG = 5, MAX_LNG = 6;
+    private final int size;
+    private final double[] zoneData;
+
+    // Grid: cellKeys is sorted, zones of cellKeys[i] are cellZones[cellStart[i] .. cellStart[i + 1])
+    private final double cellDeg;
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] cellZones;
+
+    private ZoneIndex(Builder b) {
+        int n = b.size;
+        size = n;
+        zoneData = new double[n * STRIDE];
+
+        double sumRadiusDeg = 0;
+        double loLat = 90, hiLat = -90, loLng = 180, hiLng = -180;
+        for (int i = 0; i < n; i++) {
+            double lat = b.lat[i], lng = b.lng[i], radius = b.radius[i];
+            double dLat = radius / METERS_PER_DEG_LAT;
+            double dLng = dLat / Math.max(Math.cos(Math.toRadians(lat)), 1e-6);
+            int o = i * STRIDE;
+            zoneData[o + LAT] = lat;
+            zoneData[o + LNG] = lng;
+            zoneData[o + RADIUS] = radius;
+            zoneData[o + MIN_LAT] = lat - dLat;
+            zoneData[o + MAX_LAT] = lat + dLat;
+            zoneData[o + MIN_LNG] = lng - dLng;
+            zoneData[o + MAX_LNG] = lng + dLng;
+            sumRadiusDeg += dLat;
+            loLat = Math.min(loLat, lat);
+            hiLat = Math.max(hiLat, lat);
+            loLng = Math.min(loLng, lng);
+            hiLng = Math.max(hiLng, lng);
+        }
+        cellDeg = chooseCellSize(n, sumRadiusDeg, (hiLat - loLat) * (hiLng - loLng));
+
+        // One packed (cell, zone) pair for every cell a zone's bounding box touches
+        long[] pairs = new long[Math.max(n, 16)];
+        int pairCount = 0;
+        for (int i = 0; i < n; i++) {
+            int o = i * STRIDE;
+            int latLo = latCell(zoneData[o + MIN_LAT]), latHi = latCell(zoneData[o + MAX_LAT]);
+            int lngLo = lngCell(zoneData[o + MIN_LNG]), lngHi = lngCell(zoneData[o + MAX_LNG]);
+            for (int cLat = latLo; cLat <= latHi; cLat++) {
+                for (int cLng = lngLo; cLng <= lngHi; cLng++) {
+                    if (pairCount == pairs.length) {
+                        pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                    }
+                    pairs[pairCount++] = (cellKey(cLat, cLng) << ZONE_BITS) | i;
+                }
+            }
+        }
+        Arrays.sort(pairs, 0, pairCount);
+
+        long[] keys = new long[pairCount];
+        int[] starts = new int[pairCount + 1];
+        int[] zones = new int[pairCount];
+        int cells = 0;
+        for (int p = 0; p < pairCount; p++) {
+            long key = pairs[p] >>> ZONE_BITS;
+            if (cells == 0 || keys[cells - 1] != key) {
+                keys[cells] = key;
+                starts[cells] = p;
+                cells++;
+            }
+            zones[p] = (int) (pairs[p] & (MAX_ZONES - 1));
+        }
+        starts[cells] = pairCount;
+
+        cellKeys = Arrays.copyOf(keys, cells);
+        cellStart = Arrays.copyOf(starts, cells + 1);
+        cellZones = zones;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return findZone(latitude, longitude) >= 0;
+    }
+
+    /**
+     * @return the index (in insertion order) of a zone containing the point, or -1 if none does
+     */
+    public int findZone(double latitude, double longitude) {
+        long key = cellKey(latCell(latitude), lngCell(longitude));
+        int cell = Arrays.binarySearch(cellKeys, key);
+        if (cell < 0) {
+            return -1;
+        }
+
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        for (int p = cellStart[cell], end = cellStart[cell + 1]; p < end; p++) {
+            int z = cellZones[p];
+            int o = z * STRIDE;
+
+            // Bounding box
+            if (latitude < zoneData[o + MIN_LAT] || latitude > zoneData[o + MAX_LAT]
+                    || longitude < zoneData[o + MIN_LNG] || longitude > zoneData[o + MAX_LNG]) {
+                continue;
+            }
+
+            // Equirectangular approximation
+            double x = (longitude - zoneData[o + LNG]) * cosLat;
+            double y = latitude - zoneData[o + LAT];
+            double approx = Math.sqrt(x * x + y * y) * METERS_PER_DEG_LAT;
+            double radius = zoneData[o + RADIUS];
+            if (approx > radius * PREFILTER_SLACK) {
+                continue;
+            }
+
+            if (haversineMeters(latitude, longitude, zoneData[o + LAT], zoneData[o + LNG]) <= radius) {
+                return z;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Great-circle distance on a spherical earth. Within ~0.5% of Location.distanceTo() (WGS84).
+     */
+    public static double haversineMeters(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinDPhi = Math.sin((phi2 - phi1) / 2);
+        double sinDLambda = Math.sin(Math.toRadians(lng2 - lng1) / 2);
+        double a = sinDPhi * sinDPhi + Math.cos(phi1) * Math.cos(phi2) * sinDLambda * sinDLambda;
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // ===== Grid helpers =====
+
+    private static double chooseCellSize(int n, double sumRadiusDeg, double centerAreaDeg2) {
+        if (n == 0) return MAX_CELL_DEG;
+        // Spread the zone centers over ~TARGET_ZONES_PER_CELL per cell...
+        double cell = Math.sqrt(centerAreaDeg2 * TARGET_ZONES_PER_CELL / n);
+        // ...but keep cells at least a zone diameter wide so each zone lands in a handful of cells
+        cell = Math.max(cell, 2 * sumRadiusDeg / n);
+        return Math.max(MIN_CELL_DEG, Math.min(MAX_CELL_DEG, cell));
+    }
+
+    private int latCell(double latitude) {
+        return clamp((int) Math.floor((latitude + 90) / cellDeg), LAT_BITS);
+    }
+
+    private int lngCell(double longitude) {
+        return clamp((int) Math.floor((longitude + 180) / cellDeg), LNG_BITS);
+    }
+
+    private static int clamp(int cell, int bits) {
+        return Math.max(0, Math.min((1 << bits) - 1, cell));
+    }
+
+    private static long cellKey(int cellLat, int cellLng) {
+        return ((long) cellLat << LNG_BITS) | cellLng;
+    }
+
+    public static final class Builder {
+        private double[] lat = new double[16];
+        private double[] lng = new double[16];
+        private double[] radius = new double[16];
+        private int size;
+
+        public Builder add(double latitude, double longitude, double radiusMeters) {
+            if (size == MAX_ZONES) {
+                throw new IllegalStateException("Too many zones (max " + MAX_ZONES + ")");
+            }
+            if (size == lat.length) {
+                lat = Arrays.copyOf(lat, size * 2);
+                lng = Arrays.copyOf(lng, size * 2);
+                radius = Arrays.copyOf(radius, size * 2);
+            }
+            lat[size] = latitude;
+            lng[size] = longitude;
+            radius[size] = radiusMeters;
+            size++;
+            return this;
+        }
+
+        public ZoneIndex build() {
+            return new ZoneIndex(this);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import static com.islam.mobilesecurityhw1.core.AttemptCoordinator.Decision.*;
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link AttemptCoordinator}.
+ */
+public class AttemptCoordinatorTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AttemptCoordinator coordinator = new AttemptCoordinator(
+            new TokenBucket(3, SECOND), 3, 2 * SECOND, 8 * SECOND);
+
+    @Test
+    public void tapsDuringEvaluationJoinIt() {
+        assertEquals(START, coordinator.onTap(0));
+        assertEquals(JOINED, coordinator.onTap(1));
+        assertEquals(JOINED, coordinator.onTap(2));
+        assertTrue(coordinator.isInFlight());
+
+        assertEquals(2, coordinator.onFinished(3, true));
+        assertFalse(coordinator.isInFlight());
+        assertEquals(START, coordinator.onTap(4));
+        assertEquals(0, coordinator.onFinished(5, true));
+    }
+
+    @Test
+    public void throttlesBursts() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(START, coordinator.onTap(0));
+            coordinator.onFinished(0, true);
+        }
+        assertEquals(THROTTLED, coordinator.onTap(0));
+        assertEquals(1000, coordinator.getRetryDelayMs(0));
+        assertEquals(START, coordinator.onTap(SECOND));
+    }
+
+    @Test
+    public void backsOffAfterRepeatedFailures() {
+        long t = 0;
+        for (int i = 0; i < 2; i++) {
+            t += 10 * SECOND;
+            assertEquals(START, coordinator.onTap(t));
+            coordinator.onFinished(t, false);
+            assertEquals(0, coordinator.getBackoffNanos());
+        }
+
+        // Third failure in a row: 2 s, then 4 s, then capped at 8 s
+        long[] expected = {2 * SECOND, 4 * SECOND, 8 * SECOND, 8 * SECOND};
+        for (long backoff : expected) {
+            t += 10 * SECOND;
+            assertEquals(START, coordinator.onTap(t));
+            coordinator.onFinished(t, false);
+            assertEquals(backoff, coordinator.getBackoffNanos());
+            assertEquals(THROTTLED, coordinator.onTap(t + backoff - 1));
+            assertEquals(1, coordinator.getRetryDelayMs(t + backoff - 1));
+        }
+
+        // A success resets the streak
+        t += 10 * SECOND;
+        assertEquals(START, coordinator.onTap(t));
+        coordinator.onFinished(t, true);
+        assertEquals(0, coordinator.getConsecutiveFailures());
+        assertEquals(START, coordinator.onTap(t + 1));
+    }
+}
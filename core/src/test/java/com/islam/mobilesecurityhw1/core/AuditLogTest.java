@@ -0,0 +1,146 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link AuditLog}, {@link AuditLogReader} and {@link AuditRecord}.
+ */
+public class AuditLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final DeviceState DEVICE = DeviceState.INITIAL
+            .withBattery(87, true)
+            .withWifiConnected(true)
+            .withBrightness(200);
+
+    private static AuditRecord failure(long timestampMs, String check) {
+        LoginInputs inputs = LoginSnapshot.withoutLocation("secret", DEVICE, OrientationState.of(true, false));
+        LoginCheckEvaluator.Result result = LoginCheckEvaluator.Result.failure(
+                LoginCheck.of(check, check + " failed", () -> false), false);
+        return AuditRecord.of(timestampMs, inputs, result);
+    }
+
+    private static List<AuditRecord> readAll(AuditLog log) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        AuditLogReader.read(log.getFile(), log.getMaxBackups(), records::add);
+        return records;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        AuditLog log = new AuditLog(new File(folder.getRoot(), "audit/login.log"), 16, 1 << 20, 2);
+        LoginInputs inputs = LoginSnapshot.withLocation("secret", DEVICE, OrientationState.of(true, true), 32.0, 34.0);
+        assertTrue(log.append(AuditRecord.of(1000, inputs, LoginCheckEvaluator.Result.success())));
+        assertTrue(log.append(failure(2000, "north")));
+        assertTrue(log.append(AuditRecord.noPermission(3000, DEVICE, OrientationState.NONE)));
+        log.close();
+
+        List<AuditRecord> records = readAll(log);
+        assertEquals(3, records.size());
+        assertEquals("1000,SUCCESS,,87,true,true,200,true,true,true", records.get(0).toCsv());
+        assertEquals("2000,FAILED,north,87,true,true,200,true,false,false", records.get(1).toCsv());
+        assertEquals(AuditRecord.Outcome.NO_PERMISSION, records.get(2).getOutcome());
+        assertNull(records.get(2).getFailedCheck());
+        assertEquals(3, log.getWrittenCount());
+        assertEquals(0, log.getDroppedCount());
+    }
+
+    @Test
+    public void burstIsWrittenInFewBatches() throws IOException {
+        AuditLog log = new AuditLog(new File(folder.getRoot(), "login.log"), 1024, 1 << 20, 0);
+        for (int i = 0; i < 500; i++) {
+            assertTrue(log.append(failure(i, "wifi")));
+        }
+        log.close();
+
+        assertEquals(500, readAll(log).size());
+        assertTrue("batches: " + log.getBatchCount(), log.getBatchCount() < 500);
+    }
+
+    @Test
+    public void rotatesAndKeepsNewestRecordsInOrder() throws IOException {
+        // ~30 records per file, 2 backups: only the newest ~90 of 300 survive
+        AuditLog log = new AuditLog(new File(folder.getRoot(), "login.log"), 1024, 1024, 2);
+        for (int i = 0; i < 300; i++) {
+            log.append(failure(i, "charging"));
+            if (i % 10 == 9) sleepMs(5); // let several batches and rotations happen
+        }
+        log.close();
+
+        assertTrue(AuditLog.backupFile(log.getFile(), 2).exists());
+        assertFalse(AuditLog.backupFile(log.getFile(), 3).exists());
+        for (int i = 0; i <= 2; i++) {
+            File file = i == 0 ? log.getFile() : AuditLog.backupFile(log.getFile(), i);
+            assertTrue(file.length() <= 1024 + 64 * 40);
+        }
+
+        List<AuditRecord> records = readAll(log);
+        assertTrue(records.size() < 300);
+        assertEquals(299, records.get(records.size() - 1).getTimestampMs());
+        for (int i = 1; i < records.size(); i++) {
+            assertEquals(records.get(i - 1).getTimestampMs() + 1, records.get(i).getTimestampMs());
+        }
+    }
+
+    @Test
+    public void dropsInsteadOfBlockingWhenClosed() {
+        AuditLog log = new AuditLog(new File(folder.getRoot(), "login.log"), 4, 1 << 20, 0);
+        log.close();
+        assertFalse(log.append(failure(1, "flat")));
+        assertEquals(1, log.getDroppedCount());
+    }
+
+    @Test
+    public void closeWakesIdleWriterAndWritesLateRecords() throws IOException {
+        AuditLog log = new AuditLog(new File(folder.getRoot(), "login.log"), 16, 1 << 20, 0);
+        log.append(failure(1, "wifi"));
+        sleepMs(50); // the writer commits it and parks on the empty queue
+        log.append(failure(2, "wifi"));
+
+        long start = System.nanoTime();
+        log.close();
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertEquals(2, readAll(log).size());
+    }
+
+    @Test
+    public void ignoresTornLastRecord() throws IOException {
+        AuditLog log = new AuditLog(new File(folder.getRoot(), "login.log"), 16, 1 << 20, 0);
+        log.append(failure(1, "flat"));
+        log.append(failure(2, "flat"));
+        log.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(log.getFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        List<AuditRecord> records = readAll(log);
+        assertEquals(1, records.size());
+        assertEquals(1, records.get(0).getTimestampMs());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        AuditLogReader.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}), record -> { });
+    }
+
+    private static void sleepMs(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link BulkPolicyEvaluator} and {@link SnapshotColumns}.
+ */
+public class BulkPolicyEvaluatorTest {
+
+    private static final double TEL_AVIV_LAT = 32.08684812926745;
+    private static final double TEL_AVIV_LNG = 34.7895403545493;
+
+    private final LoginPolicy policy = new LoginPolicy("10s20w30q", 128,
+            new ZoneIndex.Builder().add(TEL_AVIV_LAT, TEL_AVIV_LNG, 5000).build(), "Tel Aviv");
+
+    /** Rows scattered around every threshold; spans several leaves. */
+    private static SnapshotColumns randomRows(int count, long seed) {
+        Random random = new Random(seed);
+        SnapshotColumns.Builder builder = new SnapshotColumns.Builder();
+        for (int i = 0; i < count; i++) {
+            boolean hasFix = random.nextInt(10) != 0;
+            builder.add(random.nextInt(101), random.nextBoolean(), random.nextBoolean(), random.nextInt(256),
+                    hasFix ? TEL_AVIV_LAT + (random.nextDouble() - 0.5) * 0.2 : Double.NaN,
+                    TEL_AVIV_LNG + (random.nextDouble() - 0.5) * 0.2,
+                    (random.nextFloat() - 0.5f) * 40f, (random.nextFloat() - 0.5f) * 40f,
+                    random.nextFloat() * 360f);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void agreesWithPolicyRowByRow() {
+        SnapshotColumns rows = randomRows(3 * BulkPolicyEvaluator.LEAF_ROWS + 17, 42);
+        BulkPolicyEvaluator.Report report = new BulkPolicyEvaluator(policy).evaluate(rows);
+
+        long[] passed = new long[LoginPolicy.ALL_CHECKS.size()];
+        long[] first = new long[LoginPolicy.ALL_CHECKS.size()];
+        long allPassed = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            DeviceState device = DeviceState.INITIAL
+                    .withBattery(rows.batteryLevel[i], rows.charging[i])
+                    .withWifiConnected(rows.wifiConnected[i])
+                    .withBrightness(rows.brightness[i]);
+            OrientationState orientation = OrientationState.of(
+                    OrientationEngine.isFlat(rows.pitch[i], rows.roll[i], policy.getFlatToleranceDeg()),
+                    OrientationEngine.isPointingNorth(rows.azimuth[i], policy.getNorthToleranceDeg()));
+            LoginInputs in = Double.isNaN(rows.latitude[i])
+                    ? LoginSnapshot.withoutLocation("", device, orientation)
+                    : LoginSnapshot.withLocation("", device, orientation, rows.latitude[i], rows.longitude[i]);
+
+            boolean reported = false;
+            for (int c = 0; c < passed.length; c++) {
+                String check = LoginPolicy.ALL_CHECKS.get(c);
+                if (check.equals(LoginPolicy.CHECK_PASSWORD)) continue;
+                if (policy.isMet(check, in)) {
+                    passed[c]++;
+                } else if (!reported) {
+                    first[c]++;
+                    reported = true;
+                }
+            }
+            if (!reported) allPassed++;
+        }
+
+        assertEquals(rows.size(), report.getRows());
+        for (int c = 0; c < passed.length; c++) {
+            String check = LoginPolicy.ALL_CHECKS.get(c);
+            if (check.equals(LoginPolicy.CHECK_PASSWORD)) continue;
+            assertEquals(check, passed[c], report.getPassCount(check));
+            assertEquals(check, rows.size() - passed[c], report.getFailureCount(check));
+            assertEquals(check, first[c], report.getFirstFailureCount(check));
+        }
+        assertEquals(allPassed, report.getAllPassedCount());
+        assertTrue(allPassed > 0);
+    }
+
+    @Test
+    public void poolSizeDoesNotChangeCounts() {
+        SnapshotColumns rows = randomRows(5 * BulkPolicyEvaluator.LEAF_ROWS, 7);
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            BulkPolicyEvaluator.Report a = new BulkPolicyEvaluator(policy, single).evaluate(rows);
+            BulkPolicyEvaluator.Report b = new BulkPolicyEvaluator(policy, four).evaluate(rows);
+            for (String check : a.getChecks()) {
+                assertEquals(check, a.getPassCount(check), b.getPassCount(check));
+                assertEquals(check, a.getFirstFailureCount(check), b.getFirstFailureCount(check));
+            }
+            assertEquals(a.getAllPassedCount(), b.getAllPassedCount());
+        } finally {
+            single.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test
+    public void followsPolicyCheckOrderAndSkipsPassword() {
+        Properties p = new Properties();
+        p.setProperty("password.prefix", "x");
+        p.setProperty("brightness.min", "128");
+        p.setProperty("zone.description", "Tel Aviv");
+        p.setProperty("zone.0", TEL_AVIV_LAT + "," + TEL_AVIV_LNG + ",5000");
+        p.setProperty("checks", "north,password,wifi");
+        LoginPolicy custom = LoginPolicy.fromProperties(p);
+
+        // Pointing south, no WiFi: north is reported, wifi is counted but never first
+        SnapshotColumns rows = new SnapshotColumns.Builder()
+                .add(50, false, false, 0, Double.NaN, Double.NaN, 0f, 0f, 180f)
+                .build();
+        BulkPolicyEvaluator.Report report = new BulkPolicyEvaluator(custom).evaluate(rows);
+
+        assertEquals(Arrays.asList("north", "wifi"), report.getChecks());
+        assertEquals(1, report.getFirstFailureCount("north"));
+        assertEquals(0, report.getFirstFailureCount("wifi"));
+        assertEquals(1, report.getFailureCount("wifi"));
+        assertEquals(0, report.getAllPassedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void passwordIsNotEvaluated() {
+        SnapshotColumns rows = new SnapshotColumns.Builder().build();
+        new BulkPolicyEvaluator(policy).evaluate(rows).getPassCount(LoginPolicy.CHECK_PASSWORD);
+    }
+
+    @Test
+    public void readsCsv() throws IOException {
+        String csv = SnapshotColumns.CSV_HEADER + "\n"
+                + "87,true,1,200," + TEL_AVIV_LAT + "," + TEL_AVIV_LNG + ",1.5,-2,359\n"
+                + "\n"
+                + "20,0,false,10,,,30,0,90\n";
+        SnapshotColumns rows = SnapshotColumns.readCsv(new BufferedReader(new StringReader(csv)));
+
+        assertEquals(2, rows.size());
+        assertEquals(87, rows.batteryLevel[0]);
+        assertTrue(rows.charging[0]);
+        assertTrue(rows.wifiConnected[0]);
+        assertEquals(359f, rows.azimuth[0], 0);
+        assertTrue(Double.isNaN(rows.latitude[1]));
+
+        BulkPolicyEvaluator.Report report = new BulkPolicyEvaluator(policy).evaluate(rows);
+        assertEquals(1, report.getAllPassedCount());
+        assertEquals(1, report.getFirstFailureCount(LoginPolicy.CHECK_BRIGHTNESS));
+    }
+
+    @Test
+    public void rejectsMalformedCsv() throws IOException {
+        try {
+            SnapshotColumns.readCsv(new BufferedReader(new StringReader("battery,wifi\n")));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            SnapshotColumns.readCsv(new BufferedReader(new StringReader(
+                    SnapshotColumns.CSV_HEADER + "\n87,yes,1,200,0,0,0,0,0\n")));
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().startsWith("Line 2"));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link CheckMetrics} and {@link LatencyHistogram}.
+ */
+public class CheckMetricsTest {
+
+    @Test
+    public void disabledReturnsCheckUnchanged() {
+        LoginCheck check = LoginCheck.of("wifi", "msg", () -> true);
+        assertSame(check, CheckMetrics.DISABLED.instrument(check));
+
+        CheckMetrics.DISABLED.record("wifi", 100, true);
+        assertEquals(0, CheckMetrics.DISABLED.getPassCount("wifi"));
+    }
+
+    @Test
+    public void countsPassesAndFailures() throws Exception {
+        CheckMetrics metrics = CheckMetrics.enabled(null);
+        boolean[] result = {true};
+        LoginCheck check = metrics.instrument(LoginCheck.of("wifi", "msg", () -> result[0]));
+
+        assertTrue(check.passes());
+        assertTrue(check.passes());
+        result[0] = false;
+        assertFalse(check.passes());
+
+        assertEquals(2, metrics.getPassCount("wifi"));
+        assertEquals(1, metrics.getFailureCount("wifi"));
+        assertEquals(3, metrics.getLatency("wifi").getCount());
+        assertTrue(metrics.dump().contains("wifi"));
+    }
+
+    @Test
+    public void throwingCheckCountsAsFailure() {
+        CheckMetrics metrics = CheckMetrics.enabled(null);
+        LoginCheck check = metrics.instrument(LoginCheck.of("boom", "msg", () -> {
+            throw new IllegalStateException();
+        }));
+
+        try {
+            check.passes();
+            fail();
+        } catch (Exception expected) {
+            // rethrown to the evaluator
+        }
+        assertEquals(1, metrics.getFailureCount("boom"));
+    }
+
+    @Test
+    public void tracerSectionsAreBalanced() throws Exception {
+        List<String> events = new ArrayList<>();
+        CheckMetrics metrics = CheckMetrics.enabled(new CheckMetrics.Tracer() {
+            @Override
+            public void beginSection(String name) {
+                events.add("begin " + name);
+            }
+
+            @Override
+            public void endSection() {
+                events.add("end");
+            }
+        });
+
+        metrics.instrument(LoginCheck.of("flat", "msg", () -> true)).passes();
+        assertEquals(2, events.size());
+        assertEquals("begin check:flat", events.get(0));
+        assertEquals("end", events.get(1));
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000);
+        }
+        histogram.record(1_000_000);
+
+        assertEquals(100, histogram.getCount());
+        long p50 = histogram.getPercentileNanos(50);
+        assertTrue(p50 >= 1_000 && p50 <= 2_048);
+        assertEquals(1_000_000, histogram.getPercentileNanos(100));
+        assertEquals(1_000_000, histogram.getMaxNanos());
+    }
+}
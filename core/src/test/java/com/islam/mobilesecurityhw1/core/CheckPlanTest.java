@@ -0,0 +1,157 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link CheckPlan}.
+ */
+public class CheckPlanTest {
+
+    private final LoginPolicy policy = new LoginPolicy("10s20w30q", 128,
+            new ZoneIndex.Builder().add(32.0, 34.0, 5000).build(), "Tel Aviv");
+
+    private final List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+    /** One check per policy entry; those named in {@code failing} fail. */
+    private List<LoginCheck> checks(String... failing) {
+        List<String> failingNames = Arrays.asList(failing);
+        List<LoginCheck> checks = new ArrayList<>();
+        for (String name : policy.getCheckOrder()) {
+            checks.add(LoginCheck.of(name, name + " failed", () -> {
+                ran.add(name);
+                return !failingNames.contains(name);
+            }));
+        }
+        return checks;
+    }
+
+    private static long farDeadline() {
+        return System.nanoTime() + 60_000_000_000L;
+    }
+
+    private static boolean sleepThen(long millis, boolean value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    @Test
+    public void allPass() {
+        LoginCheckEvaluator.Result result = new CheckPlan(policy).evaluate(checks(), farDeadline());
+        assertTrue(result.isSuccess());
+        assertEquals(policy.getCheckOrder(), ran);
+    }
+
+    @Test
+    public void skipsLowerPriorityChecksAfterFailure() {
+        LoginCheckEvaluator.Result result = new CheckPlan(policy).evaluate(checks("wifi"), farDeadline());
+        assertEquals("wifi", result.getFailedCheck().getName());
+        assertFalse(result.isTimedOut());
+        assertEquals(3, ran.size()); // brightness, password, wifi
+    }
+
+    @Test
+    public void learnsToRunFrequentlyFailingCheckFirst() {
+        CheckPlan plan = new CheckPlan(policy);
+        for (int i = 0; i < 64; i++) {
+            plan.evaluate(checks("north"), farDeadline());
+        }
+        assertEquals("north", plan.getRunOrder().get(0));
+
+        // Reported failure still follows priority order, whatever ran first
+        ran.clear();
+        LoginCheckEvaluator.Result result = plan.evaluate(checks("north", "password"), farDeadline());
+        assertEquals("north", ran.get(0));
+        assertEquals("password", result.getFailedCheck().getName());
+    }
+
+    @Test
+    public void deadlineReportsFirstUnrunCheckAsTimedOut() {
+        LoginCheckEvaluator.Result result = new CheckPlan(policy).evaluate(checks(), System.nanoTime() - 1);
+        assertFalse(result.isSuccess());
+        assertTrue(result.isTimedOut());
+        assertEquals("brightness", result.getFailedCheck().getName());
+        assertTrue(ran.isEmpty());
+    }
+
+    @Test
+    public void hungCheckOnExecutorTimesOutAndStopsTheRun() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            List<LoginCheck> checks = checks();
+            checks.set(1, LoginCheck.of("password", "password failed", () -> {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }));
+            long start = System.nanoTime();
+            LoginCheckEvaluator.Result result = new CheckPlan(policy)
+                    .evaluate(checks, start + TimeUnit.MILLISECONDS.toNanos(100), executor);
+
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+            assertTrue(result.isTimedOut());
+            assertEquals("password", result.getFailedCheck().getName());
+            assertEquals(Arrays.asList("brightness"), ran); // nothing after the hung check
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void checksOnExecutorRunConcurrently() {
+        ExecutorService executor = Executors.newFixedThreadPool(policy.getCheckOrder().size());
+        try {
+            List<LoginCheck> checks = new ArrayList<>();
+            for (String name : policy.getCheckOrder()) {
+                checks.add(LoginCheck.of(name, name + " failed", () -> sleepThen(200, true)));
+            }
+            long start = System.nanoTime();
+            LoginCheckEvaluator.Result result = new CheckPlan(policy).evaluate(checks, farDeadline(), executor);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertTrue(result.isSuccess());
+            // About the slowest check, not the sum of all of them
+            assertTrue("took " + elapsedMs + " ms", elapsedMs < 200L * checks.size() / 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrentRunReportsFailureInPriorityOrder() {
+        ExecutorService executor = Executors.newFixedThreadPool(policy.getCheckOrder().size());
+        try {
+            List<LoginCheck> checks = checks("north");
+            // Fails last, but outranks north
+            checks.set(0, LoginCheck.of("brightness", "brightness failed", () -> sleepThen(100, false)));
+
+            LoginCheckEvaluator.Result result = new CheckPlan(policy).evaluate(checks, farDeadline(), executor);
+
+            assertEquals("brightness", result.getFailedCheck().getName());
+            assertFalse(result.isTimedOut());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsChecksFromAnotherPolicy() {
+        new CheckPlan(policy).evaluate(new ArrayList<>(), farDeadline());
+    }
+}
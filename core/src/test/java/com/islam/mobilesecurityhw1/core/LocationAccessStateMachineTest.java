@@ -0,0 +1,126 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import static com.islam.mobilesecurityhw1.core.LocationAccessStateMachine.SettingsResult;
+import static com.islam.mobilesecurityhw1.core.LocationAccessStateMachine.State;
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link LocationAccessStateMachine}.
+ */
+public class LocationAccessStateMachineTest {
+
+    private final LocationAccessStateMachine machine = new LocationAccessStateMachine();
+
+    @Test
+    public void settingsCheckIsDedupedAndCached() {
+        machine.onPermissionChecked(true);
+        assertTrue(machine.beginSettingsCheck());
+        assertFalse(machine.beginSettingsCheck()); // in flight
+
+        machine.onSettingsResult(SettingsResult.SATISFIED);
+        assertTrue(machine.isReady());
+
+        // Further resumes reuse the cached result
+        machine.onPermissionChecked(true);
+        assertFalse(machine.beginSettingsCheck());
+        assertTrue(machine.isReady());
+    }
+
+    @Test
+    public void restoredSettingsNeedPermission() {
+        machine.onSettingsRestored();
+        assertEquals(State.UNKNOWN, machine.getState());
+
+        machine.onPermissionChecked(true);
+        machine.onSettingsRestored();
+        assertTrue(machine.isReady());
+        assertFalse(machine.beginSettingsCheck());
+
+        machine.invalidateSettings();
+        assertTrue(machine.beginSettingsCheck());
+        machine.onSettingsRestored(); // a check is in flight: its result wins
+        assertEquals(State.CHECKING_SETTINGS, machine.getState());
+    }
+
+    @Test
+    public void providerChangeInvalidatesCache() {
+        machine.onPermissionChecked(true);
+        machine.beginSettingsCheck();
+        machine.onSettingsResult(SettingsResult.SATISFIED);
+
+        machine.invalidateSettings();
+        assertEquals(State.SETTINGS_UNKNOWN, machine.getState());
+        assertTrue(machine.beginSettingsCheck());
+    }
+
+    @Test
+    public void providerChangeDuringCheckDiscardsResult() {
+        machine.onPermissionChecked(true);
+        machine.beginSettingsCheck();
+        machine.invalidateSettings();
+
+        machine.onSettingsResult(SettingsResult.SATISFIED);
+        assertEquals(State.SETTINGS_UNKNOWN, machine.getState());
+    }
+
+    @Test
+    public void resolutionResult() {
+        machine.onPermissionChecked(true);
+        machine.beginSettingsCheck();
+        machine.onSettingsResult(SettingsResult.RESOLVABLE);
+        assertEquals(State.RESOLVING_SETTINGS, machine.getState());
+        assertFalse(machine.beginSettingsCheck());
+
+        machine.onResolutionResult(false);
+        assertEquals(State.SETTINGS_UNSATISFIED, machine.getState());
+    }
+
+    @Test
+    public void lostResolutionResultIsRecheckedOnResume() {
+        machine.onPermissionChecked(true);
+        machine.beginSettingsCheck();
+        machine.onSettingsResult(SettingsResult.RESOLVABLE);
+
+        machine.onResumed(); // no result came back
+        assertEquals(State.SETTINGS_UNKNOWN, machine.getState());
+        assertTrue(machine.beginSettingsCheck());
+    }
+
+    @Test
+    public void invalidateAbandonsResolution() {
+        machine.onPermissionChecked(true);
+        machine.beginSettingsCheck();
+        machine.onSettingsResult(SettingsResult.RESOLVABLE);
+
+        machine.invalidateSettings();
+        assertEquals(State.SETTINGS_UNKNOWN, machine.getState());
+        machine.onResolutionResult(true); // late; the recheck decides
+        assertEquals(State.SETTINGS_UNKNOWN, machine.getState());
+    }
+
+    @Test
+    public void permissionRequestIsDeduped() {
+        assertTrue(machine.beginPermissionRequest());
+        assertFalse(machine.beginPermissionRequest());
+        machine.onPermissionChecked(false); // resume while the dialog is up
+        assertEquals(State.REQUESTING_PERMISSION, machine.getState());
+
+        machine.onPermissionResult(false);
+        assertEquals(State.NO_PERMISSION, machine.getState());
+        assertFalse(machine.beginSettingsCheck());
+    }
+
+    @Test
+    public void revokedPermissionDropsCache() {
+        machine.onPermissionChecked(true);
+        machine.beginSettingsCheck();
+        machine.onSettingsResult(SettingsResult.SATISFIED);
+
+        machine.onPermissionChecked(false);
+        assertEquals(State.NO_PERMISSION, machine.getState());
+        machine.onPermissionChecked(true);
+        assertTrue(machine.beginSettingsCheck());
+    }
+}
@@ -0,0 +1,36 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link LocationPolicy}.
+ */
+public class LocationPolicyTest {
+
+    private final LocationPolicy policy = new LocationPolicy(120_000, 500f, 10_000);
+
+    @Test
+    public void freshAndAccurateFixIsAccepted() {
+        assertTrue(policy.isAcceptable(5_000, true, 30f));
+        assertTrue(policy.isAcceptable(120_000, true, 500f));
+    }
+
+    @Test
+    public void staleFixIsRejected() {
+        assertFalse(policy.isAcceptable(120_001, true, 30f));
+    }
+
+    @Test
+    public void inaccurateFixIsRejected() {
+        assertFalse(policy.isAcceptable(5_000, true, 1500f));
+        assertFalse(policy.isAcceptable(5_000, false, 0f));
+    }
+
+    @Test
+    public void fixFromTheFutureIsRejected() {
+        // Clock mismatch between the fix and elapsedRealtime
+        assertFalse(policy.isAcceptable(-1, true, 30f));
+    }
+}
@@ -0,0 +1,106 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link LoginCheckEvaluator}.
+ */
+public class LoginCheckEvaluatorTest {
+
+    private final LoginPolicy policy = new LoginPolicy("10s20w30q", 128,
+            new ZoneIndex.Builder().add(32.0, 34.0, 5000).build(), "Tel Aviv");
+
+    private ExecutorService executor;
+    private LoginCheckEvaluator evaluator;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        evaluator = new LoginCheckEvaluator(executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void allPass() throws Exception {
+        LoginCheckEvaluator.Result result = evaluate(1000, null, null);
+
+        assertTrue(result.isSuccess());
+        assertNull(result.getFailedCheck());
+    }
+
+    @Test
+    public void reportsFirstFailureInPriorityOrder() throws Exception {
+        LoginCheckEvaluator.Result result = evaluate(1000, "north", () -> false);
+
+        assertFalse(result.isSuccess());
+        assertEquals("north", result.getFailedCheck().getName());
+        assertFalse(result.isTimedOut());
+    }
+
+    @Test
+    public void throwingCheckFails() throws Exception {
+        LoginCheckEvaluator.Result result = evaluate(1000, "wifi", () -> {
+            throw new IllegalStateException();
+        });
+
+        assertEquals("wifi", result.getFailedCheck().getName());
+        assertFalse(result.isTimedOut());
+    }
+
+    @Test
+    public void hungCheckIsCutOffAtDeadline() throws Exception {
+        long start = System.nanoTime();
+        LoginCheckEvaluator.Result result = evaluate(100, "charging", () -> sleepThen(5000, true));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("charging", result.getFailedCheck().getName());
+        assertTrue(result.isTimedOut());
+        assertTrue("took " + elapsedMs + " ms", elapsedMs < 1000);
+    }
+
+    /**
+     * Every check of the policy passes except {@code special}, which runs {@code condition}.
+     */
+    private LoginCheckEvaluator.Result evaluate(long deadlineMs, String special, BooleanSupplier condition)
+            throws InterruptedException {
+        List<LoginCheck> checks = new ArrayList<>();
+        for (String name : policy.getCheckOrder()) {
+            checks.add(LoginCheck.of(name, name + " failed", name.equals(special) ? condition : () -> true));
+        }
+
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<LoginCheckEvaluator.Result> result = new AtomicReference<>();
+        evaluator.evaluate(new CheckPlan(policy), checks, deadlineMs, Runnable::run, r -> {
+            result.set(r);
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    private static boolean sleepThen(long millis, boolean value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,110 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link LoginPolicy}.
+ */
+public class LoginPolicyTest {
+
+    private static final double TEL_AVIV_LAT = 32.08684812926745;
+    private static final double TEL_AVIV_LNG = 34.7895403545493;
+
+    private final LoginPolicy policy = new LoginPolicy("10s20w30q", 128,
+            new ZoneIndex.Builder().add(TEL_AVIV_LAT, TEL_AVIV_LNG, 5000).build(),
+            "Tel Aviv");
+
+    private final DeviceState goodDevice = DeviceState.INITIAL
+            .withBattery(87, true)
+            .withWifiConnected(true)
+            .withBrightness(200);
+
+    @Test
+    public void sumOfDigits() {
+        assertEquals(15, LoginPolicy.sumOfDigits(87));
+        assertEquals(1, LoginPolicy.sumOfDigits(100));
+        assertEquals(0, LoginPolicy.sumOfDigits(0));
+    }
+
+    @Test
+    public void passwordUsesBatteryDigitSum() {
+        assertTrue(policy.isPasswordValid("10s20w30q15", goodDevice));
+        assertFalse(policy.isPasswordValid("10s20w30q16", goodDevice));
+        assertFalse(policy.isPasswordValid("10s20w30q", goodDevice));
+        assertFalse(policy.isPasswordValid("10s20w30q0", DeviceState.INITIAL)); // battery unknown
+    }
+
+    @Test
+    public void allConditionsMet() {
+        LoginInputs in = LoginSnapshot.withLocation("10s20w30q15", goodDevice,
+                OrientationState.of(true, true), TEL_AVIV_LAT, TEL_AVIV_LNG);
+        assertNull(policy.firstFailure(in));
+    }
+
+    @Test
+    public void reportsFirstFailureInPriorityOrder() {
+        // Wrong password, no location and not flat: password comes first
+        LoginInputs in = LoginSnapshot.withoutLocation("nope", goodDevice, OrientationState.NONE);
+        assertEquals("password", policy.firstFailure(in).getName());
+
+        in = LoginSnapshot.withoutLocation("10s20w30q15", goodDevice, OrientationState.NONE);
+        LoginCheck failed = policy.firstFailure(in);
+        assertEquals("location", failed.getName());
+        assertEquals("You must be near Tel Aviv.", failed.getFailureMessage());
+    }
+
+    @Test
+    public void northIsCheckedLast() {
+        LoginInputs in = LoginSnapshot.withLocation("10s20w30q15", goodDevice,
+                OrientationState.of(true, false), TEL_AVIV_LAT, TEL_AVIV_LNG);
+        assertEquals("north", policy.firstFailure(in).getName());
+    }
+
+    @Test
+    public void fromProperties() {
+        Properties p = new Properties();
+        p.setProperty("password.prefix", "abc");
+        p.setProperty("brightness.min", "100");
+        p.setProperty("zone.description", "Tel Aviv");
+        p.setProperty("zone.0", TEL_AVIV_LAT + "," + TEL_AVIV_LNG + ",5000");
+        p.setProperty("orientation.flatToleranceDeg", "5");
+        p.setProperty("checks", "location, password");
+        p.setProperty("message.password", "Bad password.");
+
+        LoginPolicy loaded = LoginPolicy.fromProperties(p);
+        assertEquals(Arrays.asList("location", "password"), loaded.getCheckOrder());
+        assertEquals(5f, loaded.getFlatToleranceDeg(), 0f);
+        assertEquals(OrientationEngine.NORTH_TOLERANCE_DEG, loaded.getNorthToleranceDeg(), 0f);
+
+        LoginInputs in = LoginSnapshot.withLocation("wrong", goodDevice, OrientationState.NONE,
+                TEL_AVIV_LAT, TEL_AVIV_LNG);
+        assertEquals("Bad password.", loaded.firstFailure(in).getFailureMessage());
+
+        // Unlisted checks (flat, north, ...) are not enforced
+        in = LoginSnapshot.withLocation("abc15", goodDevice, OrientationState.NONE, TEL_AVIV_LAT, TEL_AVIV_LNG);
+        assertNull(loaded.firstFailure(in));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromPropertiesRejectsUnknownCheck() {
+        Properties p = new Properties();
+        p.setProperty("password.prefix", "abc");
+        p.setProperty("brightness.min", "100");
+        p.setProperty("zone.description", "nowhere");
+        p.setProperty("checks", "password,bluetooth");
+        LoginPolicy.fromProperties(p);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromPropertiesRejectsMissingPrefix() {
+        Properties p = new Properties();
+        p.setProperty("brightness.min", "100");
+        p.setProperty("zone.description", "nowhere");
+        LoginPolicy.fromProperties(p);
+    }
+}
@@ -0,0 +1,241 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link OrientationEngine}: orientation results and the per-event allocation budget.
+ */
+public class OrientationEngineTest {
+
+    // Lying flat on a table, top edge facing magnetic north (northern hemisphere field)
+    private static final float[] GRAVITY_FLAT = {0f, 0f, 9.81f};
+    private static final float[] FIELD_NORTH = {0f, 22f, -40f};
+    private static final float[] FIELD_EAST = {-22f, 0f, -40f};
+
+    // Standing upright in portrait
+    private static final float[] GRAVITY_UPRIGHT = {0f, 9.81f, 0f};
+
+    private static final long MS = 1_000_000L;
+
+    /** Raw samples, no smoothing or stable window: the geometry alone. */
+    private static OrientationEngine immediate() {
+        return new OrientationEngine(OrientationEngine.FLAT_TOLERANCE_DEG, OrientationEngine.NORTH_TOLERANCE_DEG,
+                OrientationEngine.HYSTERESIS_DEG, 0, 0);
+    }
+
+    @Test
+    public void flatAndFacingNorth() {
+        OrientationEngine engine = immediate();
+        assertFalse(engine.onAccelerometer(0, GRAVITY_FLAT));
+        assertTrue(engine.onMagnetometer(0, FIELD_NORTH));
+
+        assertTrue(engine.isFlat());
+        assertTrue(engine.isPointingNorth());
+    }
+
+    @Test
+    public void flatButFacingEast() {
+        OrientationEngine engine = immediate();
+        engine.onAccelerometer(0, GRAVITY_FLAT);
+        engine.onMagnetometer(0, FIELD_EAST);
+
+        assertTrue(engine.isFlat());
+        assertFalse(engine.isPointingNorth());
+        assertEquals(90f, engine.getAzimuth(), 1f);
+    }
+
+    @Test
+    public void uprightIsNotFlat() {
+        OrientationEngine engine = immediate();
+        engine.onAccelerometer(0, GRAVITY_UPRIGHT);
+        engine.onMagnetometer(0, FIELD_NORTH);
+
+        assertFalse(engine.isFlat());
+    }
+
+    @Test
+    public void freeFallKeepsPreviousResult() {
+        OrientationEngine engine = immediate();
+        engine.onAccelerometer(0, GRAVITY_FLAT);
+        engine.onMagnetometer(0, FIELD_NORTH);
+
+        assertFalse(engine.onAccelerometer(MS, new float[]{0f, 0f, 0.1f}));
+        assertTrue(engine.isFlat());
+        assertTrue(engine.isPointingNorth());
+    }
+
+    @Test
+    public void flagsCountOnlyAfterStableWindow() {
+        OrientationEngine engine = new OrientationEngine();
+        long t = 0;
+        for (; t < OrientationEngine.STABLE_WINDOW_MS * MS; t += 100 * MS) {
+            engine.onAccelerometer(t, GRAVITY_FLAT);
+            engine.onMagnetometer(t, FIELD_NORTH);
+            assertFalse(engine.isFlat());
+        }
+        engine.onAccelerometer(t, GRAVITY_FLAT);
+        engine.onMagnetometer(t, FIELD_NORTH);
+        assertTrue(engine.isFlat());
+        assertTrue(engine.isPointingNorth());
+
+        // The last reading still holds later on
+        assertEquals(OrientationState.of(true, true), engine.getState(t + 10_000 * MS));
+    }
+
+    @Test
+    public void resetForgetsHowLongFlagsHeld() {
+        OrientationEngine engine = new OrientationEngine();
+        long window = OrientationEngine.STABLE_WINDOW_MS * MS;
+        engine.onRotationVector(0, new float[]{0f, 0f, 0f, 1f});
+        assertFalse(engine.isSettled());
+        engine.onRotationVector(window, new float[]{0f, 0f, 0f, 1f});
+        assertTrue(engine.isSettled());
+        assertTrue(engine.isFlat());
+
+        // Sensors off for a minute: the first new sample says nothing about the time in between
+        engine.reset();
+        long later = 60_000 * MS;
+        engine.onRotationVector(later, new float[]{0f, 0f, 0f, 1f});
+        assertFalse(engine.isSettled());
+        assertFalse(engine.isFlat());
+        engine.onRotationVector(later + window, new float[]{0f, 0f, 0f, 1f});
+        assertTrue(engine.isSettled());
+        assertTrue(engine.isFlat());
+    }
+
+    @Test
+    public void rotationVector() {
+        OrientationEngine engine = immediate();
+        assertTrue(engine.onRotationVector(0, new float[]{0f, 0f, 0f, 1f})); // identity: flat, facing north
+        assertTrue(engine.isFlat());
+        assertTrue(engine.isPointingNorth());
+
+        // 90° about the z axis, w left out as older devices do
+        float half = (float) Math.sin(Math.toRadians(45));
+        engine.onRotationVector(MS, new float[]{0f, 0f, half});
+        assertTrue(engine.isFlat());
+        assertFalse(engine.isPointingNorth());
+        assertEquals(90f, OrientationEngine.angularDistance(engine.getAzimuth(), 0f), 0.5f);
+    }
+
+    @Test
+    public void northHasHysteresisAcrossTheSeam() {
+        OrientationEngine engine = immediate();
+        // Heading 0°, then 16° (just outside tolerance, inside hysteresis), then 344° (other side of the seam)
+        engine.onRotationVector(0, yaw(0));
+        assertTrue(engine.isPointingNorth());
+        engine.onRotationVector(MS, yaw(16));
+        assertTrue(engine.isPointingNorth());
+        engine.onRotationVector(2 * MS, yaw(-16));
+        assertTrue(engine.isPointingNorth());
+        engine.onRotationVector(3 * MS, yaw(19));
+        assertFalse(engine.isPointingNorth());
+        // Back inside the hysteresis band is not enough to turn it on again
+        engine.onRotationVector(4 * MS, yaw(16));
+        assertFalse(engine.isPointingNorth());
+        engine.onRotationVector(5 * MS, yaw(-14));
+        assertTrue(engine.isPointingNorth());
+    }
+
+    @Test
+    public void flatHasHysteresis() {
+        OrientationEngine engine = immediate();
+        engine.onRotationVector(0, pitch(9));
+        assertTrue(engine.isFlat());
+        engine.onRotationVector(MS, pitch(11));
+        assertTrue(engine.isFlat());
+        engine.onRotationVector(2 * MS, pitch(14));
+        assertFalse(engine.isFlat());
+        engine.onRotationVector(3 * MS, pitch(11));
+        assertFalse(engine.isFlat());
+    }
+
+    @Test
+    public void unreliableHeadingIsNeverNorth() {
+        OrientationEngine engine = immediate();
+        engine.onHeadingAccuracy(OrientationEngine.ACCURACY_UNRELIABLE);
+        engine.onRotationVector(0, yaw(0));
+        assertTrue(engine.isFlat());
+        assertFalse(engine.isPointingNorth());
+
+        engine.onHeadingAccuracy(OrientationEngine.ACCURACY_MEDIUM);
+        engine.onRotationVector(MS, yaw(0));
+        assertTrue(engine.isPointingNorth());
+    }
+
+    @Test
+    public void lowPassFilterSmoothsSpikes() {
+        OrientationEngine engine = new OrientationEngine(OrientationEngine.FLAT_TOLERANCE_DEG,
+                OrientationEngine.NORTH_TOLERANCE_DEG, OrientationEngine.HYSTERESIS_DEG, 0,
+                OrientationEngine.FILTER_TIME_CONSTANT_MS);
+        for (int i = 0; i < 10; i++) {
+            engine.onAccelerometer(i * 5 * MS, GRAVITY_FLAT);
+            engine.onMagnetometer(i * 5 * MS, FIELD_NORTH);
+        }
+        // One 5 ms sample of a 30° tilt barely moves the filtered gravity
+        engine.onAccelerometer(50 * MS, new float[]{0f, 4.9f, 8.5f});
+        assertTrue(engine.isFlat());
+        assertTrue(Math.abs(engine.getPitch()) < 5f);
+    }
+
+    @Test
+    public void angularDistance() {
+        assertEquals(20f, OrientationEngine.angularDistance(350f, 10f), 1e-4f);
+        assertEquals(180f, OrientationEngine.angularDistance(0f, 180f), 1e-4f);
+        assertEquals(0f, OrientationEngine.angularDistance(-360f, 0f), 1e-4f);
+    }
+
+    /** Lying flat, top edge rotated {@code deg} clockwise from north. */
+    private static float[] yaw(double deg) {
+        double half = Math.toRadians(-deg) / 2;
+        return new float[]{0f, 0f, (float) Math.sin(half), (float) Math.cos(half)};
+    }
+
+    /** Facing north, tilted {@code deg} about the x axis. */
+    private static float[] pitch(double deg) {
+        double half = Math.toRadians(deg) / 2;
+        return new float[]{(float) Math.sin(half), 0f, 0f, (float) Math.cos(half)};
+    }
+
+    @Test
+    public void sensorEventsDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeAllocationCounting(threads);
+
+        OrientationEngine engine = new OrientationEngine();
+        float[] accel = GRAVITY_FLAT.clone();
+        float[] mag = FIELD_NORTH.clone();
+
+        // Warm up so the measured loop runs compiled code
+        feed(engine, accel, mag, 20_000);
+
+        final int events = 100_000;
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        feed(engine, accel, mag, events / 2);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Allow a little slack for the measurement call itself
+        assertTrue("allocated " + allocated + " bytes over " + events + " events",
+                allocated <= OrientationEngine.ALLOCATION_BUDGET_BYTES_PER_EVENT * events + 1024);
+    }
+
+    private static void feed(OrientationEngine engine, float[] accel, float[] mag, int pairs) {
+        for (int i = 0; i < pairs; i++) {
+            accel[0] = (i & 7) * 0.01f;
+            mag[0] = (i & 3) * 0.1f;
+            engine.onAccelerometer(i * 5_000_000L, accel);
+            engine.onMagnetometer(i * 5_000_000L, mag);
+        }
+    }
+
+    private static void assumeAllocationCounting(com.sun.management.ThreadMXBean threads) {
+        org.junit.Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+}
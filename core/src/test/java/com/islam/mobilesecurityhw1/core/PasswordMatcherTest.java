@@ -0,0 +1,65 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link PasswordMatcher}.
+ */
+public class PasswordMatcherTest {
+
+    private final PasswordMatcher matcher = new PasswordMatcher("10s20w30q");
+
+    @Test
+    public void matchesPrefixPlusDigitSumForEveryLevel() {
+        for (int level = 0; level <= 100; level++) {
+            String correct = "10s20w30q" + LoginPolicy.sumOfDigits(level);
+            assertTrue("level " + level, matcher.matches(correct, level));
+            assertTrue(matcher.matches(new StringBuilder(correct), level));
+        }
+    }
+
+    @Test
+    public void rejectsWrongInput() {
+        assertFalse(matcher.matches("10s20w30q16", 87));
+        assertFalse(matcher.matches("10s20w30q1", 87));   // prefix of the right answer
+        assertFalse(matcher.matches("10s20w30q150", 87)); // right answer plus extra
+        assertFalse(matcher.matches("", 87));
+        assertFalse(matcher.matches("x0s20w30q15", 87));
+        assertFalse(matcher.matches("10s20w30q15" + "x".repeat(100), 87));
+    }
+
+    @Test
+    public void rejectsUnknownBatteryLevel() {
+        assertFalse(matcher.matches("10s20w30q0", DeviceState.UNKNOWN));
+        assertFalse(matcher.matches("10s20w30q2", 101));
+    }
+
+    @Test
+    public void matchingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        StringBuilder input = new StringBuilder("10s20w30q15");
+        int matches = 0;
+        for (int i = 0; i < 20_000; i++) { // warm up
+            if (matcher.matches(input, i % 101)) matches++;
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            if (matcher.matches(input, i % 101)) matches++;
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(matches > 0);
+        assertTrue("allocated " + allocated + " bytes", allocated <= 1024);
+    }
+}
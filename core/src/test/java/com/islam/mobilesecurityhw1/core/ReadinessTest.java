@@ -0,0 +1,92 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link Readiness}.
+ */
+public class ReadinessTest {
+
+    private static final double TEL_AVIV_LAT = 32.08684812926745;
+    private static final double TEL_AVIV_LNG = 34.7895403545493;
+
+    private final LoginPolicy policy = new LoginPolicy("10s20w30q", 128,
+            new ZoneIndex.Builder().add(TEL_AVIV_LAT, TEL_AVIV_LNG, 5000).build(), "Tel Aviv");
+
+    private final DeviceState goodDevice = DeviceState.INITIAL
+            .withBattery(87, true)
+            .withWifiConnected(true)
+            .withBrightness(200);
+
+    @Test
+    public void allMet() {
+        LoginInputs in = LoginSnapshot.withLocation("10s20w30q15", goodDevice, OrientationState.of(true, true),
+                TEL_AVIV_LAT, TEL_AVIV_LNG);
+        Readiness readiness = Readiness.evaluate(policy, true, in);
+        assertTrue(readiness.isAllMet());
+        assertFalse(Readiness.evaluate(policy, false, in).isAllMet());
+    }
+
+    @Test
+    public void reportsEveryConditionNotJustTheFirst() {
+        LoginInputs in = LoginSnapshot.withoutLocation("wrong", goodDevice.withWifiConnected(false),
+                OrientationState.of(true, false));
+        Readiness readiness = Readiness.evaluate(policy, true, in);
+
+        assertTrue(readiness.isMet(Readiness.PERMISSION));
+        assertTrue(readiness.isMet(LoginPolicy.CHECK_BRIGHTNESS));
+        assertFalse(readiness.isMet(LoginPolicy.CHECK_PASSWORD));
+        assertFalse(readiness.isMet(LoginPolicy.CHECK_WIFI));
+        assertTrue(readiness.isMet(LoginPolicy.CHECK_CHARGING));
+        assertFalse(readiness.isMet(LoginPolicy.CHECK_LOCATION));
+        assertTrue(readiness.isMet(LoginPolicy.CHECK_FLAT));
+        assertFalse(readiness.isMet(LoginPolicy.CHECK_NORTH));
+    }
+
+    @Test
+    public void withSetsOneCondition() {
+        LoginInputs in = LoginSnapshot.withoutLocation("wrong", goodDevice, OrientationState.NONE);
+        Readiness readiness = Readiness.evaluate(policy, true, in);
+
+        Readiness withPassword = readiness.with(LoginPolicy.CHECK_PASSWORD, true);
+        assertTrue(withPassword.isMet(LoginPolicy.CHECK_PASSWORD));
+        assertEquals(Readiness.bit(LoginPolicy.CHECK_PASSWORD), withPassword.changedMask(readiness));
+        assertSame(readiness, readiness.with(LoginPolicy.CHECK_PASSWORD, false));
+        assertSame(Readiness.NONE, Readiness.NONE.with(LoginPolicy.CHECK_FLAT, true).with(LoginPolicy.CHECK_FLAT, false));
+    }
+
+    @Test
+    public void changedMaskHasOnlyTheDifferences() {
+        LoginInputs notFlat = LoginSnapshot.withoutLocation("10s20w30q15", goodDevice, OrientationState.NONE);
+        LoginInputs flat = LoginSnapshot.withoutLocation("10s20w30q15", goodDevice, OrientationState.of(true, false));
+        Readiness before = Readiness.evaluate(policy, true, notFlat);
+        Readiness after = Readiness.evaluate(policy, true, flat);
+
+        assertEquals(Readiness.bit(LoginPolicy.CHECK_FLAT), after.changedMask(before));
+        assertEquals(0, after.changedMask(Readiness.evaluate(policy, true, flat)));
+        assertEquals(after, Readiness.evaluate(policy, true, flat));
+    }
+
+    @Test
+    public void unenforcedChecksCountAsMet() {
+        Properties p = new Properties();
+        p.setProperty("password.prefix", "abc");
+        p.setProperty("brightness.min", "0");
+        p.setProperty("zone.description", "nowhere");
+        p.setProperty("checks", "password");
+        LoginPolicy passwordOnly = LoginPolicy.fromProperties(p);
+
+        LoginInputs in = LoginSnapshot.withoutLocation("abc15", goodDevice, OrientationState.NONE);
+        assertTrue(Readiness.evaluate(passwordOnly, true, in).isAllMet());
+    }
+
+    @Test
+    public void nothingMetIsNone() {
+        LoginInputs in = LoginSnapshot.withoutLocation("", DeviceState.INITIAL, OrientationState.NONE);
+        assertSame(Readiness.NONE, Readiness.evaluate(policy, false, in));
+    }
+}
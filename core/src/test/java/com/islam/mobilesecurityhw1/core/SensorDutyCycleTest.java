@@ -0,0 +1,79 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import static com.islam.mobilesecurityhw1.core.SensorDutyCycle.DEMAND_INPUT_FOCUS;
+import static com.islam.mobilesecurityhw1.core.SensorDutyCycle.DEMAND_LOGIN_PENDING;
+import static com.islam.mobilesecurityhw1.core.SensorDutyCycle.Mode;
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link SensorDutyCycle}.
+ */
+public class SensorDutyCycleTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void offWithoutDemand() {
+        SensorDutyCycle cycle = new SensorDutyCycle(1000 * MS);
+        assertEquals(Mode.OFF, cycle.getMode());
+        // Stray readings after unregistering don't turn anything on
+        assertEquals(Mode.OFF, cycle.onReading(true, 0));
+        assertEquals(0, cycle.getActiveNanos(5000 * MS));
+    }
+
+    @Test
+    public void fullRateUntilStableThenLowRate() {
+        SensorDutyCycle cycle = new SensorDutyCycle(1000 * MS);
+        assertEquals(Mode.FULL, cycle.setDemand(DEMAND_INPUT_FOCUS, true, 0));
+
+        assertEquals(Mode.FULL, cycle.onReading(true, 200 * MS));
+        assertEquals(Mode.FULL, cycle.onReading(false, 1100 * MS));
+        assertEquals(Mode.LOW, cycle.onReading(false, 1200 * MS));
+        assertEquals(Mode.LOW, cycle.onReading(false, 5000 * MS));
+
+        // The reading moves again: back to the full rate
+        assertEquals(Mode.FULL, cycle.onReading(true, 6000 * MS));
+    }
+
+    @Test
+    public void offOnlyWhenEveryReasonIsGone() {
+        SensorDutyCycle cycle = new SensorDutyCycle(1000 * MS);
+        cycle.setDemand(DEMAND_INPUT_FOCUS, true, 0);
+        cycle.setDemand(DEMAND_LOGIN_PENDING, true, 0);
+
+        assertEquals(Mode.FULL, cycle.setDemand(DEMAND_INPUT_FOCUS, false, 100 * MS));
+        assertEquals(DEMAND_LOGIN_PENDING, cycle.getDemand());
+        assertEquals(Mode.OFF, cycle.setDemand(DEMAND_LOGIN_PENDING, false, 200 * MS));
+
+        cycle.setDemand(DEMAND_INPUT_FOCUS, true, 300 * MS);
+        cycle.clear(400 * MS);
+        assertEquals(Mode.OFF, cycle.getMode());
+        assertEquals(0, cycle.getDemand());
+    }
+
+    @Test
+    public void moreDemandDoesNotRaiseTheRate() {
+        SensorDutyCycle cycle = new SensorDutyCycle(1000 * MS);
+        cycle.setDemand(DEMAND_INPUT_FOCUS, true, 0);
+        cycle.onReading(false, 1000 * MS);
+        // A cached stable reading is good enough for the login
+        assertEquals(Mode.LOW, cycle.setDemand(DEMAND_LOGIN_PENDING, true, 1500 * MS));
+    }
+
+    @Test
+    public void accountsTimeInEachMode() {
+        SensorDutyCycle cycle = new SensorDutyCycle(1000 * MS);
+        cycle.setDemand(DEMAND_INPUT_FOCUS, true, 0);
+        cycle.onReading(false, 1000 * MS);                  // 1 s full
+        cycle.setDemand(DEMAND_INPUT_FOCUS, false, 4000 * MS); // 3 s low
+        cycle.setDemand(DEMAND_INPUT_FOCUS, true, 10_000 * MS); // 6 s off
+
+        long now = 10_500 * MS;
+        assertEquals(1500 * MS, cycle.getNanosIn(Mode.FULL, now));
+        assertEquals(3000 * MS, cycle.getNanosIn(Mode.LOW, now));
+        assertEquals(6000 * MS, cycle.getNanosIn(Mode.OFF, now));
+        assertEquals(4500 * MS, cycle.getActiveNanos(now));
+    }
+}
@@ -0,0 +1,100 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link SharedReadiness}.
+ */
+public class SharedReadinessTest {
+
+    private static final double TEL_AVIV_LAT = 32.08684812926745;
+    private static final double TEL_AVIV_LNG = 34.7895403545493;
+
+    private final LoginPolicy policy = new LoginPolicy("10s20w30q", 128,
+            new ZoneIndex.Builder().add(TEL_AVIV_LAT, TEL_AVIV_LNG, 5000).build(), "Tel Aviv");
+
+    private final DeviceState goodDevice = DeviceState.INITIAL
+            .withBattery(87, true)
+            .withWifiConnected(true)
+            .withBrightness(200);
+
+    private final LoginInputs goodInputs = LoginSnapshot.withLocation("", goodDevice,
+            OrientationState.of(true, true), TEL_AVIV_LAT, TEL_AVIV_LNG);
+
+    @Test
+    public void nothingMetBeforeFirstPublish() {
+        SharedReadiness shared = new SharedReadiness(policy);
+        assertEquals(0, shared.get().getVersion());
+        assertEquals(Readiness.NONE, shared.get().getReadiness());
+        assertFalse(shared.get().isDeviceReady());
+    }
+
+    @Test
+    public void reportsDeviceConditionsOnly() {
+        SharedReadiness shared = new SharedReadiness(policy);
+        assertTrue(shared.publish(true, goodInputs));
+
+        assertTrue(shared.get().isDeviceReady());
+        assertFalse(shared.get().getReadiness().isAllMet());
+        assertFalse(shared.get().getReadiness().isMet(LoginPolicy.CHECK_PASSWORD));
+        assertTrue(shared.get().getReadiness().isMet(LoginPolicy.CHECK_NORTH));
+    }
+
+    @Test
+    public void publishedPasswordIsIgnored() {
+        SharedReadiness shared = new SharedReadiness(policy);
+        shared.publish(true, LoginSnapshot.withLocation("10s20w30q15", goodDevice,
+                OrientationState.of(true, true), TEL_AVIV_LAT, TEL_AVIV_LNG));
+
+        assertFalse(shared.get().getReadiness().isMet(LoginPolicy.CHECK_PASSWORD));
+    }
+
+    @Test
+    public void oneUnmetConditionIsNotReady() {
+        SharedReadiness shared = new SharedReadiness(policy);
+        shared.publish(true, LoginSnapshot.withLocation("", goodDevice.withWifiConnected(false),
+                OrientationState.of(true, true), TEL_AVIV_LAT, TEL_AVIV_LNG));
+
+        assertFalse(shared.get().isDeviceReady());
+        assertFalse(shared.get().getReadiness().isMet(LoginPolicy.CHECK_WIFI));
+    }
+
+    @Test
+    public void versionMovesOnlyOnChange() {
+        SharedReadiness shared = new SharedReadiness(policy);
+        shared.publish(true, goodInputs);
+        long version = shared.get().getVersion();
+
+        assertFalse(shared.publish(true, goodInputs));
+        assertEquals(version, shared.get().getVersion());
+
+        // Battery changed: same conditions, but the snapshot carries the new level
+        DeviceState drained = goodDevice.withBattery(86, true);
+        assertTrue(shared.publish(true, LoginSnapshot.withLocation("", drained,
+                OrientationState.of(true, true), TEL_AVIV_LAT, TEL_AVIV_LNG)));
+        assertEquals(version + 1, shared.get().getVersion());
+        assertEquals(86, shared.get().getDeviceState().getBatteryLevel());
+
+        assertTrue(shared.publish(false, goodInputs));
+        assertFalse(shared.get().getReadiness().isMet(Readiness.PERMISSION));
+    }
+
+    @Test
+    public void unenforcedPasswordAlwaysCounts() {
+        Properties p = new Properties();
+        p.setProperty("password.prefix", "x");
+        p.setProperty("brightness.min", "0");
+        p.setProperty("zone.description", "Tel Aviv");
+        p.setProperty("zone.0", TEL_AVIV_LAT + "," + TEL_AVIV_LNG + ",5000");
+        p.setProperty("checks", "wifi");
+        SharedReadiness shared = new SharedReadiness(LoginPolicy.fromProperties(p));
+
+        shared.publish(true, goodInputs);
+        assertTrue(shared.get().getReadiness().isAllMet());
+        assertTrue(shared.get().isDeviceReady());
+    }
+}
@@ -0,0 +1,78 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link StallDetector}.
+ */
+public class StallDetectorTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void onlyDispatchesOverBudgetAreRecorded() {
+        StallDetector detector = new StallDetector(50 * MS, 8);
+        detector.begin(0, "fast");
+        assertNull(detector.end(50 * MS, 1000));
+
+        detector.begin(100 * MS, "slow");
+        StallDetector.Stall stall = detector.end(251 * MS, 2000);
+        assertNotNull(stall);
+        assertEquals(151 * MS, stall.getDurationNanos());
+        assertEquals(2000, stall.getWallTimeMs());
+        assertEquals("slow", stall.getDispatch());
+        assertEquals("", stall.getSteps());
+
+        assertEquals(2, detector.getDispatchCount());
+        assertEquals(1, detector.getStallCount());
+        assertEquals(151 * MS, detector.getMaxNanos());
+    }
+
+    @Test
+    public void stepsBelongToTheirDispatch() {
+        StallDetector detector = new StallDetector(10 * MS, 8);
+        detector.step("outside"); // no dispatch running: ignored
+
+        detector.begin(0, "click");
+        detector.step("attemptLogin");
+        detector.step("evaluateLogin");
+        assertEquals("attemptLogin > evaluateLogin", detector.end(20 * MS, 0).getSteps());
+
+        // The next dispatch starts clean
+        detector.begin(30 * MS, "frame");
+        assertEquals("", detector.end(60 * MS, 0).getSteps());
+
+        detector.begin(100 * MS, "busy");
+        for (int i = 0; i < 6; i++) {
+            detector.step("s" + i);
+        }
+        assertEquals("s0 > s1 > s2 > s3 (+2)", detector.end(200 * MS, 0).getSteps());
+    }
+
+    @Test
+    public void ringKeepsTheLatest() {
+        StallDetector detector = new StallDetector(0, 3);
+        for (int i = 0; i < 5; i++) {
+            detector.begin(i * 10 * MS, "d" + i);
+            detector.end(i * 10 * MS + MS, i);
+        }
+
+        List<StallDetector.Stall> stalls = detector.getStalls();
+        assertEquals(3, stalls.size());
+        assertEquals("d2", stalls.get(0).getDispatch());
+        assertEquals("d4", stalls.get(2).getDispatch());
+        assertEquals(5, detector.getStallCount());
+        assertTrue(detector.dump().startsWith("5 of 5 dispatches over 0 ms"));
+    }
+
+    @Test
+    public void endWithoutBeginIsIgnored() {
+        StallDetector detector = new StallDetector(0, 3);
+        assertNull(detector.end(MS, 0));
+        assertEquals(0, detector.getDispatchCount());
+    }
+}
@@ -0,0 +1,67 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link StartupTimings}.
+ */
+public class StartupTimingsTest {
+
+    private static final long MS = 1_000_000L;
+
+    @After
+    public void tearDown() {
+        CheckMetrics.install(CheckMetrics.DISABLED);
+    }
+
+    @Test
+    public void pendingUntilMarked() {
+        StartupTimings timings = new StartupTimings(0);
+        assertFalse(timings.isFirstFrameDrawn());
+        assertFalse(timings.isLoginReady());
+        assertEquals(-1, timings.getTimeToFirstFrameMs());
+        assertEquals(-1, timings.getTimeToLoginReadyMs());
+        assertEquals("first frame pending, login-ready pending", timings.toString());
+    }
+
+    @Test
+    public void keepsFirstMarkOnly() {
+        StartupTimings timings = new StartupTimings(100 * MS);
+        assertTrue(timings.markFirstFrame(350 * MS));
+        assertFalse(timings.markFirstFrame(900 * MS));
+        assertTrue(timings.markLoginReady(600 * MS));
+        assertFalse(timings.markLoginReady(2000 * MS));
+
+        assertEquals(250, timings.getTimeToFirstFrameMs());
+        assertEquals(500, timings.getTimeToLoginReadyMs());
+        assertEquals("first frame 250 ms, login-ready 500 ms", timings.toString());
+    }
+
+    @Test
+    public void budget() {
+        StartupTimings timings = new StartupTimings(0);
+        timings.markFirstFrame(300 * MS);
+        assertTrue(timings.isWithinBudget(300, 100)); // login-ready not reached yet
+        timings.markLoginReady(800 * MS);
+        assertTrue(timings.isWithinBudget(300, 800));
+        assertFalse(timings.isWithinBudget(299, 800));
+        assertFalse(timings.isWithinBudget(300, 799));
+    }
+
+    @Test
+    public void recordsIntoMetrics() {
+        CheckMetrics metrics = CheckMetrics.enabled(null);
+        CheckMetrics.install(metrics);
+
+        StartupTimings timings = new StartupTimings(0);
+        timings.markFirstFrame(10 * MS);
+        timings.markFirstFrame(20 * MS);
+        timings.markLoginReady(30 * MS);
+
+        assertEquals(1, metrics.getPassCount(StartupTimings.FIRST_FRAME));
+        assertEquals(1, metrics.getPassCount(StartupTimings.LOGIN_READY));
+    }
+}
@@ -0,0 +1,83 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TokenBucket}.
+ */
+public class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void burstThenOnePerInterval() {
+        TokenBucket bucket = new TokenBucket(3, SECOND);
+        long t = 5 * SECOND;
+        assertTrue(bucket.tryAcquire(t));
+        assertTrue(bucket.tryAcquire(t));
+        assertTrue(bucket.tryAcquire(t));
+        assertFalse(bucket.tryAcquire(t));
+        assertEquals(SECOND, bucket.nanosUntilAvailable(t));
+
+        assertFalse(bucket.tryAcquire(t + SECOND - 1));
+        assertTrue(bucket.tryAcquire(t + SECOND));
+        assertFalse(bucket.tryAcquire(t + SECOND));
+
+        // Idle long enough to refill completely, but never beyond capacity
+        long later = t + 100 * SECOND;
+        assertEquals(0, bucket.nanosUntilAvailable(later));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(bucket.tryAcquire(later));
+        }
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    public void worksWithNegativeClock() {
+        TokenBucket bucket = new TokenBucket(1, SECOND);
+        assertTrue(bucket.tryAcquire(-10 * SECOND));
+        assertFalse(bucket.tryAcquire(-10 * SECOND));
+        assertTrue(bucket.tryAcquire(-9 * SECOND));
+    }
+
+    @Test
+    public void blockUntil() {
+        TokenBucket bucket = new TokenBucket(3, SECOND);
+        bucket.blockUntil(10 * SECOND);
+        bucket.blockUntil(5 * SECOND); // doesn't shorten the block
+        assertFalse(bucket.tryAcquire(9 * SECOND));
+        assertEquals(SECOND, bucket.nanosUntilAvailable(9 * SECOND));
+        assertTrue(bucket.tryAcquire(10 * SECOND));
+    }
+
+    @Test
+    public void concurrentAcquisitionsNeverExceedCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, SECOND);
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < 1000; j++) {
+                    if (bucket.tryAcquire(0)) acquired.incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100, acquired.get());
+    }
+}
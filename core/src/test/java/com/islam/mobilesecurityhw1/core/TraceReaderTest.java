@@ -0,0 +1,136 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TraceReader} and {@link TraceWriter}.
+ */
+public class TraceReaderTest {
+
+    /** Turns every record back into a line of text. */
+    private static class Recording implements TraceReader.Visitor {
+        final List<String> lines = new ArrayList<>();
+
+        @Override
+        public void onAccelerometer(long nanos, float[] values) {
+            lines.add(nanos + " accel " + Arrays.toString(values));
+        }
+
+        @Override
+        public void onMagnetometer(long nanos, float[] values) {
+            lines.add(nanos + " mag " + Arrays.toString(values));
+        }
+
+        @Override
+        public void onRotationVector(long nanos, float[] values) {
+            lines.add(nanos + " rotation " + Arrays.toString(values));
+        }
+
+        @Override
+        public void onHeadingAccuracy(long nanos, int accuracy) {
+            lines.add(nanos + " accuracy " + accuracy);
+        }
+
+        @Override
+        public void onLocation(long nanos, double latitude, double longitude, float accuracyMeters) {
+            lines.add(nanos + " location " + latitude + "," + longitude + " ±" + accuracyMeters);
+        }
+
+        @Override
+        public void onBattery(long nanos, int level, boolean charging) {
+            lines.add(nanos + " battery " + level + " " + charging);
+        }
+
+        @Override
+        public void onWifi(long nanos, boolean connected) {
+            lines.add(nanos + " wifi " + connected);
+        }
+
+        @Override
+        public void onBrightness(long nanos, int brightness) {
+            lines.add(nanos + " brightness " + brightness);
+        }
+
+        @Override
+        public void onLoginAttempt(long nanos) {
+            lines.add(nanos + " attempt");
+        }
+    }
+
+    private static byte[] sampleTrace() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TraceWriter writer = new TraceWriter(bytes)) {
+            writer.battery(1_000_000_000L, 87, true);
+            writer.wifi(1_000_000_001L, true);
+            writer.brightness(1_000_000_002L, 255);
+            writer.accelerometer(5_000_000_000L, 0f, 0f, 9.81f);
+            writer.magnetometer(4_900_000_000L, 0f, 22f, -40f); // batched sample, older than the last one
+            writer.location(6_000_000_000L, 32.0868, 34.7895, 12.5f);
+            writer.rotationVector(6_000_000_001L, 0f, 0f, 0.5f, Float.NaN);
+            writer.headingAccuracy(6_000_000_002L, OrientationEngine.ACCURACY_UNRELIABLE);
+            writer.battery(7_000_000_000L, DeviceState.UNKNOWN, false);
+            writer.loginAttempt(8_000_000_000L);
+            assertEquals(10, writer.getRecordCount());
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        Recording recording = new Recording();
+        assertEquals(10, TraceReader.read(new ByteArrayInputStream(sampleTrace()), recording));
+        assertEquals(Arrays.asList(
+                "1000000000 battery 87 true",
+                "1000000001 wifi true",
+                "1000000002 brightness 255",
+                "5000000000 accel [0.0, 0.0, 9.81]",
+                "4900000000 mag [0.0, 22.0, -40.0]",
+                "6000000000 location 32.0868,34.7895 ±12.5",
+                "6000000001 rotation [0.0, 0.0, 0.5, NaN]",
+                "6000000002 accuracy 0",
+                "7000000000 battery -1 false",
+                "8000000000 attempt"), recording.lines);
+    }
+
+    @Test
+    public void isCompact() throws IOException {
+        // Header, then 13-17 bytes per sensor sample
+        assertTrue(sampleTrace().length < 130);
+    }
+
+    @Test
+    public void truncatedTraceEndsAtLastCompleteRecord() throws IOException {
+        byte[] trace = sampleTrace();
+        Recording recording = new Recording();
+        assertEquals(9, TraceReader.read(new ByteArrayInputStream(Arrays.copyOf(trace, trace.length - 1)), recording));
+        assertEquals(9, recording.lines.size());
+    }
+
+    @Test
+    public void recordsAfterCloseAreDropped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TraceWriter writer = new TraceWriter(bytes);
+        writer.wifi(1, true);
+        writer.close();
+        writer.accelerometer(2, 0f, 0f, 9.81f); // a late sensor event
+        writer.close();
+
+        Recording recording = new Recording();
+        assertEquals(1, TraceReader.read(new ByteArrayInputStream(bytes.toByteArray()), recording));
+        assertEquals(1, writer.getRecordCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        TraceReader.read(new ByteArrayInputStream("not a trace".getBytes()), new Recording());
+    }
+}
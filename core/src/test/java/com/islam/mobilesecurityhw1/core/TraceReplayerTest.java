@@ -0,0 +1,109 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TraceReplayer}.
+ */
+public class TraceReplayerTest {
+
+    private static final double TEL_AVIV_LAT = 32.08684812926745;
+    private static final double TEL_AVIV_LNG = 34.7895403545493;
+    private static final long SECOND = 1_000_000_000L;
+
+    private final LoginPolicy loginPolicy = new LoginPolicy("10s20w30q", 128,
+            new ZoneIndex.Builder().add(TEL_AVIV_LAT, TEL_AVIV_LNG, 5000).build(), "Tel Aviv");
+    private final LocationPolicy locationPolicy = new LocationPolicy(2 * 60_000, 500f, 10_000);
+
+    private static final Function<DeviceState, CharSequence> CORRECT_PASSWORD =
+            state -> "10s20w30q" + LoginPolicy.sumOfDigits(state.getBatteryLevel());
+
+    /** A good session: flat, north, charging on WiFi in Tel Aviv, with a tap after each step listed. */
+    private static byte[] session() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TraceWriter writer = new TraceWriter(bytes)) {
+            writer.battery(0, 87, true);
+            writer.wifi(0, true);
+            writer.brightness(0, 200);
+            writer.loginAttempt(SECOND); // no sensors, no fix yet
+
+            writer.location(2 * SECOND, TEL_AVIV_LAT, TEL_AVIV_LNG, 20f);
+            writer.accelerometer(3 * SECOND, 0f, 0f, 9.81f);
+            writer.magnetometer(3 * SECOND, 0f, 22f, -40f);
+            writer.loginAttempt(4 * SECOND); // everything holds
+
+            writer.magnetometer(5 * SECOND, -22f, 0f, -40f);
+            writer.loginAttempt(6 * SECOND); // turned east
+
+            writer.magnetometer(7 * SECOND, 0f, 22f, -40f);
+            writer.loginAttempt(300 * SECOND); // fix went stale
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void replaysAttemptsAgainstRecordedState() throws IOException {
+        List<String> outcomes = new ArrayList<>();
+        TraceReplayer replayer = new TraceReplayer(loginPolicy, locationPolicy, CORRECT_PASSWORD,
+                (nanos, inputs, failed) -> outcomes.add(failed == null ? "ok" : failed.getName()));
+
+        assertEquals(12, replayer.replay(new ByteArrayInputStream(session())));
+
+        assertEquals(Arrays.asList("location", "ok", "north", "location"), outcomes);
+        assertEquals(4, replayer.getAttemptCount());
+        assertEquals(1, replayer.getSuccessCount());
+        assertEquals(Integer.valueOf(2), replayer.getFailureCounts().get("location"));
+        assertEquals(Integer.valueOf(1), replayer.getFailureCounts().get("north"));
+    }
+
+    @Test
+    public void wrongPasswordIsReportedFirst() throws IOException {
+        TraceReplayer replayer = new TraceReplayer(loginPolicy, locationPolicy, state -> "guess", null);
+        replayer.replay(new ByteArrayInputStream(session()));
+        assertEquals(Collections.singletonMap("password", 4), replayer.getFailureCounts());
+    }
+
+    @Test
+    public void replaysFasterThanRealTime() throws IOException {
+        // One minute of sensor data at the app's 5 Hz sampling rate, per session, for 1000 sessions
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TraceWriter writer = new TraceWriter(bytes)) {
+            writer.battery(0, 87, true);
+            writer.wifi(0, true);
+            writer.brightness(0, 200);
+            writer.location(0, TEL_AVIV_LAT, TEL_AVIV_LNG, 20f);
+            for (int i = 1; i <= 300; i++) {
+                long t = i * 200_000_000L;
+                writer.accelerometer(t, 0f, 0f, 9.81f);
+                writer.magnetometer(t, 0f, 22f, -40f);
+                if (i % 30 == 0) writer.loginAttempt(t);
+            }
+        }
+        byte[] trace = bytes.toByteArray();
+
+        long start = System.nanoTime();
+        int attempts = 0;
+        for (int session = 0; session < 1000; session++) {
+            TraceReplayer replayer = new TraceReplayer(loginPolicy, locationPolicy, CORRECT_PASSWORD, null);
+            replayer.replay(new ByteArrayInputStream(trace));
+            assertEquals(replayer.getAttemptCount(), replayer.getSuccessCount());
+            attempts += replayer.getAttemptCount();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(10_000, attempts);
+        // 1000 recorded minutes; anything near real time would take hours
+        assertTrue("took " + elapsedMs + " ms", elapsedMs < 60_000);
+    }
+}
@@ -0,0 +1,107 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link WarmStartSnapshot} and {@link WarmStartFile}.
+ */
+public class WarmStartSnapshotTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static WarmStartSnapshot full() {
+        return new WarmStartSnapshot.Builder()
+                .fix(32.08684812926745, 34.7895403545493, 12.5f, 1_000L)
+                .permission(true, true)
+                .settingsSatisfied(true)
+                .orientation(OrientationState.of(true, false), 2_000L)
+                .build(3_000L);
+    }
+
+    @Test
+    public void roundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(WarmStartSnapshot.SIZE);
+        full().writeTo(buffer);
+        WarmStartSnapshot read = WarmStartSnapshot.readFrom(buffer);
+
+        assertNotNull(read);
+        assertEquals(3_000L, read.getSavedAtMs());
+        assertTrue(read.hasFix());
+        assertEquals(32.08684812926745, read.getLatitude(), 0);
+        assertEquals(34.7895403545493, read.getLongitude(), 0);
+        assertEquals(12.5f, read.getAccuracyMeters(), 0);
+        assertEquals(1_000L, read.getFixTimeMs());
+        assertTrue(read.isPermissionGranted());
+        assertTrue(read.isPermissionRequested());
+        assertTrue(read.isSettingsSatisfied());
+        assertTrue(read.hasOrientation());
+        assertEquals(OrientationState.of(true, false), read.getOrientation());
+        assertEquals(2_000L, read.getOrientationTimeMs());
+    }
+
+    @Test
+    public void emptyBuilderHasNothing() {
+        ByteBuffer buffer = ByteBuffer.allocate(WarmStartSnapshot.SIZE);
+        new WarmStartSnapshot.Builder().build(5L).writeTo(buffer);
+        WarmStartSnapshot read = WarmStartSnapshot.readFrom(buffer);
+
+        assertNotNull(read);
+        assertFalse(read.hasFix());
+        assertFalse(read.isPermissionGranted());
+        assertFalse(read.isPermissionRequested());
+        assertFalse(read.isSettingsSatisfied());
+        assertFalse(read.hasOrientation());
+        assertEquals(OrientationState.NONE, read.getOrientation());
+    }
+
+    @Test
+    public void zeroesCorruptionAndShortBuffersReadAsNothing() {
+        assertNull(WarmStartSnapshot.readFrom(ByteBuffer.allocate(WarmStartSnapshot.SIZE)));
+        assertNull(WarmStartSnapshot.readFrom(ByteBuffer.allocate(WarmStartSnapshot.SIZE - 1)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(WarmStartSnapshot.SIZE);
+        full().writeTo(buffer);
+        buffer.put(30, (byte) (buffer.get(30) ^ 1)); // inside the latitude
+        assertNull(WarmStartSnapshot.readFrom(buffer));
+    }
+
+    @Test
+    public void fileKeepsSnapshotAcrossReopen() throws IOException {
+        File path = new File(tmp.getRoot(), "state/warm_start.bin");
+        try (WarmStartFile file = WarmStartFile.open(path)) {
+            assertNull(file.read()); // freshly created
+            file.write(full());
+        }
+        assertEquals(WarmStartSnapshot.SIZE, path.length());
+
+        try (WarmStartFile file = WarmStartFile.open(path)) {
+            WarmStartSnapshot read = file.read();
+            assertNotNull(read);
+            assertEquals(3_000L, read.getSavedAtMs());
+        }
+    }
+
+    @Test
+    public void truncatedFileReadsAsNothing() throws IOException {
+        File path = tmp.newFile("warm_start.bin");
+        try (WarmStartFile file = WarmStartFile.open(path)) {
+            file.write(full());
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(path, "rw")) {
+            raw.setLength(WarmStartSnapshot.SIZE / 2);
+        }
+        try (WarmStartFile file = WarmStartFile.open(path)) {
+            assertNull(file.read());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.islam.mobilesecurityhw1.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ZoneIndex}. Lookup cost is benchmarked in ZoneIndexBenchmark (JMH).
+ */
+public class ZoneIndexTest {
+
+    private static final double ARRABAH_LAT = 32.85254314059482;
+    private static final double ARRABAH_LNG = 35.33675279027549;
+    private static final double TEL_AVIV_LAT = 32.08684812926745;
+    private static final double TEL_AVIV_LNG = 34.7895403545493;
+
+    @Test
+    public void defaultZones() {
+        ZoneIndex index = new ZoneIndex.Builder()
+                .add(ARRABAH_LAT, ARRABAH_LNG, 5000)
+                .add(TEL_AVIV_LAT, TEL_AVIV_LNG, 5000)
+                .build();
+
+        assertEquals(0, index.findZone(ARRABAH_LAT, ARRABAH_LNG));
+        assertEquals(1, index.findZone(TEL_AVIV_LAT + 0.02, TEL_AVIV_LNG)); // ~2.2 km north
+        assertFalse(index.contains(TEL_AVIV_LAT + 0.05, TEL_AVIV_LNG));    // ~5.6 km north
+        assertFalse(index.contains(31.7683, 35.2137));                      // Jerusalem
+    }
+
+    @Test
+    public void haversineMatchesKnownDistance() {
+        // Arrabah -> Tel Aviv is roughly 100 km
+        double d = ZoneIndex.haversineMeters(ARRABAH_LAT, ARRABAH_LNG, TEL_AVIV_LAT, TEL_AVIV_LNG);
+        assertEquals(99_500, d, 1_500);
+    }
+
+    @Test
+    public void agreesWithBruteForce() {
+        Random random = new Random(42);
+        double[][] zones = randomZones(random, 5_000);
+        ZoneIndex index = build(zones);
+
+        for (int i = 0; i < 2_000; i++) {
+            double lat = 29 + random.nextDouble() * 5;
+            double lng = 34 + random.nextDouble() * 2;
+
+            boolean expected = false;
+            for (double[] z : zones) {
+                if (ZoneIndex.haversineMeters(lat, lng, z[0], z[1]) <= z[2]) {
+                    expected = true;
+                    break;
+                }
+            }
+            assertEquals("at " + lat + "," + lng, expected, index.contains(lat, lng));
+        }
+    }
+
+    @Test
+    public void emptyIndex() {
+        assertFalse(new ZoneIndex.Builder().build().contains(ARRABAH_LAT, ARRABAH_LNG));
+    }
+
+    // Zones with 100 m .. 1 km radius scattered over Israel
+    private static double[][] randomZones(Random random, int count) {
+        double[][] zones = new double[count][];
+        for (int i = 0; i < count; i++) {
+            zones[i] = new double[]{
+                    29 + random.nextDouble() * 5,
+                    34 + random.nextDouble() * 2,
+                    100 + random.nextDouble() * 900
+            };
+        }
+        return zones;
+    }
+
+    private static ZoneIndex build(double[][] zones) {
+        ZoneIndex.Builder builder = new ZoneIndex.Builder();
+        for (double[] z : zones) {
+            builder.add(z[0], z[1], z[2]);
+        }
+        return builder.build();
+    }
+}